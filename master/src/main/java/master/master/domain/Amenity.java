@@ -25,9 +25,17 @@ public class Amenity implements Serializable {
   @Column(name = "label", nullable = false, length = 100)
   private String label;
 
+  /** Bit of this amenity in {@link Room#getAmenityMask()}, assigned by the database on insert. */
+  @Column(name = "bit_position", insertable = false, updatable = false)
+  private Short bitPosition;
+
   @ManyToMany(mappedBy = "amenities", fetch = FetchType.LAZY)
   private Set<Room> rooms = new HashSet<>();
 
+  public long getMask() {
+    return bitPosition == null ? 0L : 1L << bitPosition;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -0,0 +1,46 @@
+package master.master.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import lombok.Getter;
+import lombok.Setter;
+
+/** Stored outcome of a request sent with an {@code Idempotency-Key} header. */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey implements Serializable {
+
+  @Id
+  @Column(name = "idempotency_key", length = 100)
+  private String key;
+
+  /** SHA-256 of the request, to refuse a key reused for a different request. */
+  @Column(name = "request_hash", nullable = false, length = 64)
+  private String requestHash;
+
+  /** HTTP status of the first response; null while the first request is still running. */
+  @Column(name = "response_status")
+  private Integer responseStatus;
+
+  @Column(name = "response_body", columnDefinition = "TEXT")
+  private String responseBody;
+
+  @Column(name = "created_at", nullable = false, insertable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof IdempotencyKey that)) return false;
+    return key != null && Objects.equals(key, that.key);
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass().hashCode();
+  }
+}
@@ -7,10 +7,12 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
+import master.master.event.BookingEntityListener;
 
 @Getter
 @Setter
 @Entity
+@EntityListeners(BookingEntityListener.class)
 @Table(name = "reservations")
 public class Reservation implements Serializable {
 
@@ -47,6 +49,10 @@ public class Reservation implements Serializable {
   @Column(name = "is_paid", nullable = false)
   private Boolean paid = false;
 
+  /** Whether the room assignment optimizer must leave this reservation in its room. */
+  @Column(name = "is_room_locked", nullable = false)
+  private Boolean roomLocked = false;
+
   @Column(name = "created_at", nullable = false, updatable = false)
   private LocalDateTime createdAt;
 
@@ -58,6 +64,7 @@ public class Reservation implements Serializable {
     if (createdAt == null) createdAt = LocalDateTime.now();
     if (reservationStatus == null) reservationStatus = ReservationStatus.PENDING;
     if (paid == null) paid = false;
+    if (roomLocked == null) roomLocked = false;
   }
 
   public boolean isActive() {
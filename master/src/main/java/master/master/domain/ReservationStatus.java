@@ -3,7 +3,18 @@ package master.master.domain;
 public enum ReservationStatus {
   PENDING,
   CONFIRMED,
+  CHECKED_IN,
   CANCELLED,
   COMPLETED,
-  NO_SHOW
+  NO_SHOW;
+
+  /** Whether a reservation in this status keeps its room blocked for the booked nights. */
+  public boolean blocksInventory() {
+    return this != CANCELLED;
+  }
+
+  /** Whether the reservation still has a check-in or check-out transition ahead of it. */
+  public boolean isOpen() {
+    return this == PENDING || this == CONFIRMED || this == CHECKED_IN;
+  }
 }
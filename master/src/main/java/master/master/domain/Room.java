@@ -43,6 +43,10 @@ public class Room implements Serializable {
   @Column(name = "description", columnDefinition = "TEXT")
   private String description;
 
+  /** OR of the amenity bits of this room, maintained by a trigger on {@code rooms_amenities}. */
+  @Column(name = "amenity_mask", nullable = false, insertable = false, updatable = false)
+  private Long amenityMask = 0L;
+
   @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(
       name = "rooms_amenities",
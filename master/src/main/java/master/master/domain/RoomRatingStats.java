@@ -0,0 +1,64 @@
+package master.master.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of the per-room review aggregate. Rows are maintained by database triggers on
+ * {@code rooms_reviews} and {@code reservations}, never written by the application.
+ */
+@Getter
+@Entity
+@Immutable
+@Table(name = "room_rating_stats")
+public class RoomRatingStats implements Serializable {
+
+  @Id
+  @Column(name = "id_room")
+  private Long roomId;
+
+  @Column(name = "rating_count", nullable = false)
+  private Integer ratingCount;
+
+  @Column(name = "rating_sum", nullable = false)
+  private Integer ratingSum;
+
+  @Column(name = "rating_1_count", nullable = false)
+  private Integer rating1Count;
+
+  @Column(name = "rating_2_count", nullable = false)
+  private Integer rating2Count;
+
+  @Column(name = "rating_3_count", nullable = false)
+  private Integer rating3Count;
+
+  @Column(name = "rating_4_count", nullable = false)
+  private Integer rating4Count;
+
+  @Column(name = "rating_5_count", nullable = false)
+  private Integer rating5Count;
+
+  public double getAverageRating() {
+    return ratingCount == null || ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+  }
+
+  /** Number of reviews per star, index 0 holding the 1-star count. */
+  public int[] getRatingDistribution() {
+    return new int[] {rating1Count, rating2Count, rating3Count, rating4Count, rating5Count};
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof RoomRatingStats that)) return false;
+    return roomId != null && Objects.equals(roomId, that.roomId);
+  }
+
+  @Override
+  public int hashCode() {
+    return getClass().hashCode();
+  }
+}
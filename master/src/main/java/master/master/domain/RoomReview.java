@@ -6,10 +6,12 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 import lombok.Getter;
 import lombok.Setter;
+import master.master.event.BookingEntityListener;
 
 @Getter
 @Setter
 @Entity
+@EntityListeners(BookingEntityListener.class)
 @Table(name = "rooms_reviews")
 public class RoomReview implements Serializable {
 
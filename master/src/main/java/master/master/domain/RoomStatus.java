@@ -9,6 +9,17 @@ public enum RoomStatus {
   OUT_OF_ORDER,
   INACTIVE;
 
+  /**
+   * Whether a room in this status can be sold for future dates. Occupancy states only describe
+   * today, so date availability is decided by the room's reservations and unavailabilities.
+   */
+  public boolean isSellable() {
+    return switch (this) {
+      case AVAILABLE, OCCUPIED, RESERVED, CLEANING -> true;
+      default -> false;
+    };
+  }
+
   public String getDisplayName() {
     return name().replace('_', ' ');
   }
@@ -4,5 +4,10 @@ public enum UnavailabilityStatus {
   PLANNED,
   ACTIVE,
   CANCELLED,
-  COMPLETED
+  COMPLETED;
+
+  /** Whether an unavailability in this status still prevents the room from being booked. */
+  public boolean blocksInventory() {
+    return this == PLANNED || this == ACTIVE;
+  }
 }
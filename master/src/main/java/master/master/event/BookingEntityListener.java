@@ -0,0 +1,52 @@
+package master.master.event;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import master.master.domain.Reservation;
+import master.master.domain.RoomReview;
+import master.master.domain.RoomUnavailability;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every reservation, unavailability and review write into an
+ * application event, whatever code path (service, cascade or initializer) performed it.
+ *
+ * <p>Listeners that maintain in-memory state should subscribe with
+ * {@code @TransactionalEventListener} so that rolled back writes are never applied.
+ */
+@Component
+public class BookingEntityListener {
+
+  private final ApplicationEventPublisher publisher;
+
+  public BookingEntityListener(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @PostPersist
+  public void afterInsert(Object entity) {
+    publish(ChangeType.CREATED, entity);
+  }
+
+  @PostUpdate
+  public void afterUpdate(Object entity) {
+    publish(ChangeType.UPDATED, entity);
+  }
+
+  @PostRemove
+  public void afterDelete(Object entity) {
+    publish(ChangeType.DELETED, entity);
+  }
+
+  private void publish(ChangeType type, Object entity) {
+    if (entity instanceof Reservation reservation) {
+      publisher.publishEvent(ReservationChangedEvent.of(type, reservation));
+    } else if (entity instanceof RoomUnavailability unavailability) {
+      publisher.publishEvent(RoomUnavailabilityChangedEvent.of(type, unavailability));
+    } else if (entity instanceof RoomReview review) {
+      publisher.publishEvent(ReviewChangedEvent.of(type, review));
+    }
+  }
+}
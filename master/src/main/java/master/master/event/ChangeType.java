@@ -0,0 +1,8 @@
+package master.master.event;
+
+/** Kind of write that produced a domain change event. */
+public enum ChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
@@ -0,0 +1,33 @@
+package master.master.event;
+
+import java.time.LocalDateTime;
+import master.master.domain.Reservation;
+import master.master.domain.ReservationStatus;
+
+/**
+ * Published whenever a {@link Reservation} row is inserted, updated or deleted. Carries plain values
+ * so that listeners running after commit never touch a detached entity.
+ */
+public record ReservationChangedEvent(
+    ChangeType type,
+    Long reservationId,
+    Long roomId,
+    LocalDateTime startDatetime,
+    LocalDateTime endDatetime,
+    ReservationStatus status) {
+
+  public static ReservationChangedEvent of(ChangeType type, Reservation reservation) {
+    return new ReservationChangedEvent(
+        type,
+        reservation.getId(),
+        reservation.getRoom() != null ? reservation.getRoom().getId() : null,
+        reservation.getStartDatetime(),
+        reservation.getEndDatetime(),
+        reservation.getReservationStatus());
+  }
+
+  /** Whether the reservation still holds its room after this change. */
+  public boolean blocksInventory() {
+    return type != ChangeType.DELETED && status != null && status.blocksInventory();
+  }
+}
@@ -0,0 +1,35 @@
+package master.master.event;
+
+import master.master.domain.Reservation;
+import master.master.domain.RoomReview;
+
+/**
+ * Published whenever a {@link RoomReview} row is inserted, updated or deleted. The room is the one
+ * of the reviewed reservation at the time of the write.
+ */
+public record ReviewChangedEvent(
+    ChangeType type,
+    Long reviewId,
+    Long reservationId,
+    Long roomId,
+    Short rating,
+    boolean verified) {
+
+  public static ReviewChangedEvent of(ChangeType type, RoomReview review) {
+    Reservation reservation = review.getReservation();
+    return new ReviewChangedEvent(
+        type,
+        review.getId(),
+        reservation != null ? reservation.getId() : null,
+        reservation != null && reservation.getRoom() != null
+            ? reservation.getRoom().getId()
+            : null,
+        review.getRating(),
+        Boolean.TRUE.equals(review.getVerified()));
+  }
+
+  /** Whether the review still counts after this change. */
+  public boolean exists() {
+    return type != ChangeType.DELETED && roomId != null && rating != null;
+  }
+}
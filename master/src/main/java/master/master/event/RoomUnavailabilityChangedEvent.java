@@ -0,0 +1,31 @@
+package master.master.event;
+
+import java.time.LocalDateTime;
+import master.master.domain.RoomUnavailability;
+import master.master.domain.UnavailabilityStatus;
+
+/** Published whenever a {@link RoomUnavailability} row is inserted, updated or deleted. */
+public record RoomUnavailabilityChangedEvent(
+    ChangeType type,
+    Long unavailabilityId,
+    Long roomId,
+    LocalDateTime startDatetime,
+    LocalDateTime endDatetime,
+    UnavailabilityStatus status) {
+
+  public static RoomUnavailabilityChangedEvent of(
+      ChangeType type, RoomUnavailability unavailability) {
+    return new RoomUnavailabilityChangedEvent(
+        type,
+        unavailability.getId(),
+        unavailability.getRoom() != null ? unavailability.getRoom().getId() : null,
+        unavailability.getStartDatetime(),
+        unavailability.getEndDatetime(),
+        unavailability.getUnavailabilityStatus());
+  }
+
+  /** Whether the room is still blocked after this change. */
+  public boolean blocksInventory() {
+    return type != ChangeType.DELETED && status != null && status.blocksInventory();
+  }
+}
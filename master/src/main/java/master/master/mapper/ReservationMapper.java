@@ -21,6 +21,7 @@ public interface ReservationMapper {
   @Mapping(target = "paid", constant = "false")
   @Mapping(target = "createdAt", ignore = true)
   @Mapping(target = "review", ignore = true)
+  @Mapping(target = "roomLocked", ignore = true)
   Reservation toEntity(ReservationDto.Create dto);
 
   @Mapping(source = "client.id", target = "userId")
@@ -0,0 +1,45 @@
+package master.master.repository;
+
+import java.time.LocalDateTime;
+import master.master.domain.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+  /** Insert the key if it is new; returns 0 when another request already claimed it. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO idempotency_keys (idempotency_key, request_hash) VALUES (:key, :hash) "
+              + "ON CONFLICT (idempotency_key) DO NOTHING",
+      nativeQuery = true)
+  int claim(@Param("key") String key, @Param("hash") String requestHash);
+
+  /**
+   * Take over a claim still without a response after {@code leaseSeconds}, whose first request
+   * most likely died; returns 0 when the claim is not stale.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE idempotency_keys SET created_at = LOCALTIMESTAMP "
+              + "WHERE idempotency_key = :key AND request_hash = :hash "
+              + "AND response_status IS NULL "
+              + "AND created_at < LOCALTIMESTAMP - :leaseSeconds * INTERVAL '1 second'",
+      nativeQuery = true)
+  int takeOverStale(
+      @Param("key") String key,
+      @Param("hash") String requestHash,
+      @Param("leaseSeconds") long leaseSeconds);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :before")
+  int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
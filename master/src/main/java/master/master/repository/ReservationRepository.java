@@ -1,9 +1,85 @@
 package master.master.repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import master.master.domain.Reservation;
+import master.master.domain.ReservationStatus;
+import master.master.web.rest.dto.ReservationHistoryItemDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+  /** Exclusion constraint rejecting two live reservations on the same room night. */
+  String STAY_OVERLAP_CONSTRAINT = "ex_reservation_room_stay";
+
+  /** Select list of {@link ReservationHistoryItemDto}, restricted to the client's email. */
+  String HISTORY_ITEM =
+      "SELECT new master.master.web.rest.dto.ReservationHistoryItemDto(r.id, r.startDatetime, "
+          + "r.endDatetime, r.reservationStatus, r.paid, r.totalAmount, r.createdAt, "
+          + "room.id, room.roomNumber, room.roomType) "
+          + "FROM Reservation r JOIN r.room room JOIN r.client c JOIN c.user u "
+          + "WHERE u.email = :email ";
+
   List<Reservation> findByClientId(Long userId);
+
+  /** Upcoming or current stays after the keyset position, soonest first. */
+  @Query(
+      HISTORY_ITEM
+          + "AND r.endDatetime >= :now "
+          + "AND (r.startDatetime > :afterStart "
+          + "OR (r.startDatetime = :afterStart AND r.id > :afterId)) "
+          + "ORDER BY r.startDatetime ASC, r.id ASC")
+  List<ReservationHistoryItemDto> findUpcomingHistory(
+      @Param("email") String email,
+      @Param("now") LocalDateTime now,
+      @Param("afterStart") LocalDateTime afterStart,
+      @Param("afterId") Long afterId,
+      Limit limit);
+
+  /** Past stays before the keyset position, most recent first. */
+  @Query(
+      HISTORY_ITEM
+          + "AND r.endDatetime < :now "
+          + "AND (r.startDatetime < :beforeStart "
+          + "OR (r.startDatetime = :beforeStart AND r.id < :beforeId)) "
+          + "ORDER BY r.startDatetime DESC, r.id DESC")
+  List<ReservationHistoryItemDto> findPastHistory(
+      @Param("email") String email,
+      @Param("now") LocalDateTime now,
+      @Param("beforeStart") LocalDateTime beforeStart,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+
+  List<Reservation> findByReservationStatusIn(Collection<ReservationStatus> statuses);
+
+  @EntityGraph(attributePaths = "room")
+  List<Reservation> findByIdIn(Collection<Long> ids);
+
+  List<Reservation> findByEndDatetimeAfterAndReservationStatusIn(
+      LocalDateTime after, Collection<ReservationStatus> statuses);
+
+  @EntityGraph(attributePaths = "room")
+  List<Reservation> findWithRoomByEndDatetimeAfterAndReservationStatusIn(
+      LocalDateTime after, Collection<ReservationStatus> statuses);
+
+  /**
+   * Whether a live reservation of the room occupies any night in {@code [checkIn, checkOut)}. Served
+   * by the GiST index behind {@link #STAY_OVERLAP_CONSTRAINT}.
+   */
+  @Query(
+      value =
+          "SELECT EXISTS (SELECT 1 FROM reservations r WHERE r.id_room = :roomId "
+              + "AND r.reservation_status <> 'CANCELLED' "
+              + "AND r.stay_range && tsrange(CAST(:checkIn AS timestamp), CAST(:checkOut AS timestamp), '[)'))",
+      nativeQuery = true)
+  boolean existsOverlappingReservation(
+      @Param("roomId") Long roomId,
+      @Param("checkIn") LocalDate checkIn,
+      @Param("checkOut") LocalDate checkOut);
 }
@@ -5,6 +5,8 @@ import java.util.List;
 import java.util.Optional;
 import master.master.domain.RoomReview;
 import master.master.domain.RoomType;
+import master.master.web.rest.dto.GuestBookReviewDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +21,24 @@ public interface ReviewRepository extends JpaRepository<RoomReview, Long> {
 
   List<RoomReview> findAllByOrderByCreatedAtDesc();
 
+  /**
+   * Verified reviews before the keyset position, newest first, with their room and author read in
+   * the same query. Served by the partial index on verified reviews.
+   */
+  @Query(
+      "SELECT new master.master.web.rest.dto.GuestBookReviewDto(r.id, r.rating, r.comment, "
+          + "r.createdAt, r.anonymous, room.roomNumber, u.firstName) "
+          + "FROM RoomReview r JOIN r.reservation res JOIN res.room room "
+          + "JOIN res.client c JOIN c.user u "
+          + "WHERE r.verified = true "
+          + "AND (r.createdAt < :beforeCreatedAt "
+          + "OR (r.createdAt = :beforeCreatedAt AND r.id < :beforeId)) "
+          + "ORDER BY r.createdAt DESC, r.id DESC")
+  List<GuestBookReviewDto> findVerifiedBefore(
+      @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+      @Param("beforeId") Long beforeId,
+      Limit limit);
+
   List<RoomReview> findByRatingOrderByCreatedAtDesc(Short rating);
 
   Optional<RoomReview> findByReservationRoomIdAndReservationClientId(Long roomId, Long clientId);
@@ -28,8 +48,14 @@ public interface ReviewRepository extends JpaRepository<RoomReview, Long> {
   @Query("SELECT AVG(r.rating) FROM RoomReview r WHERE r.reservation.room.id = :roomId")
   Double getAverageRatingByRoomId(@Param("roomId") Long roomId);
 
-  @Query("SELECT AVG(r.rating) FROM RoomReview r")
-  Double getAverageRating();
+  /**
+   * Every review as {@code (id, reservation id, room id, rating, verified)}, to build the in-memory
+   * review statistics.
+   */
+  @Query(
+      "SELECT r.id, res.id, res.room.id, r.rating, r.verified "
+          + "FROM RoomReview r JOIN r.reservation res")
+  List<Object[]> findAllRatings();
 
   Long countByReservationRoomId(Long roomId);
 
@@ -42,25 +68,6 @@ public interface ReviewRepository extends JpaRepository<RoomReview, Long> {
   @Query("SELECT r FROM RoomReview r WHERE r.reservation.room.roomType = :roomType ORDER BY r.createdAt DESC")
   List<RoomReview> findByRoomType(@Param("roomType") RoomType roomType);
 
-  @Query("SELECT r.rating, COUNT(r) FROM RoomReview r GROUP BY r.rating ORDER BY r.rating")
-  List<Object[]> getReviewStatsByRating();
-
-  @Query(
-      "SELECT r.reservation.room.id, AVG(r.rating), COUNT(r) FROM RoomReview r "
-          + "GROUP BY r.reservation.room.id HAVING COUNT(r) >= :minReviewCount "
-          + "ORDER BY AVG(r.rating) DESC, COUNT(r) DESC")
-  List<Object[]> getTopRatedRooms(@Param("minReviewCount") Long minReviewCount);
-
-  @Query(
-      "SELECT r.reservation.room.id, COUNT(r), AVG(r.rating) FROM RoomReview r "
-          + "GROUP BY r.reservation.room.id ORDER BY COUNT(r) DESC, AVG(r.rating) DESC")
-  List<Object[]> getMostReviewedRooms();
-
   @Query("SELECT r FROM RoomReview r WHERE r.createdAt >= :cutoffDate ORDER BY r.createdAt DESC")
   List<RoomReview> findRecentReviews(@Param("cutoffDate") LocalDateTime cutoffDate);
-
-  @Query(
-      "SELECT r FROM RoomReview r WHERE LOWER(r.comment) LIKE LOWER(CONCAT('%', :searchText, '%')) "
-          + "ORDER BY r.createdAt DESC")
-  List<RoomReview> findByCommentContaining(@Param("searchText") String searchText);
 }
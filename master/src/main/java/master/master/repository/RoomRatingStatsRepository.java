@@ -0,0 +1,8 @@
+package master.master.repository;
+
+import master.master.domain.RoomRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RoomRatingStatsRepository extends JpaRepository<RoomRatingStats, Long> {}
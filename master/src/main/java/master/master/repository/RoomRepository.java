@@ -6,6 +6,9 @@ import master.master.domain.Amenity;
 import master.master.domain.Room;
 import master.master.domain.RoomStatus;
 import master.master.domain.RoomType;
+import master.master.web.rest.dto.RoomViewDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +17,13 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
+  /** Select list of {@link RoomViewDto}; the image is the first photo, read by a subquery. */
+  String ROOM_VIEW =
+      "SELECT new master.master.web.rest.dto.RoomViewDto(r.id, r.roomNumber, r.roomType, "
+          + "r.capacity, r.description, r.basePrice, r.roomStatus, "
+          + "(SELECT p.imageUrl FROM RoomPhoto p WHERE p.room = r "
+          + "ORDER BY p.displayOrder, p.id LIMIT 1)) FROM Room r ";
+
   Optional<Room> findByRoomNumber(String roomNumber);
 
   boolean existsByRoomNumber(String roomNumber);
@@ -30,9 +40,28 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
   List<Room> findByCapacityGreaterThanEqualOrderByCapacityAsc(Short minCapacity);
 
+  @EntityGraph(attributePaths = {"amenities", "photos"})
+  @Query("SELECT r FROM Room r ORDER BY r.roomNumber")
+  List<Room> findAllForCatalog();
+
   @Query("SELECT r FROM Room r WHERE :amenity MEMBER OF r.amenities ORDER BY r.roomNumber")
   List<Room> findByAmenitiesContaining(@Param("amenity") Amenity amenity);
 
+  /** Keyset page: rooms numbered strictly after {@code after}, in room number order. */
+  @Query(ROOM_VIEW + "WHERE r.roomNumber > :after ORDER BY r.roomNumber")
+  List<RoomViewDto> findViewsAfter(@Param("after") String after, Limit limit);
+
+  @Query(ROOM_VIEW + "WHERE r.id = :id")
+  Optional<RoomViewDto> findViewById(@Param("id") Long id);
+
+  @Query(ROOM_VIEW + "WHERE r.roomType = :roomType ORDER BY r.roomNumber")
+  List<RoomViewDto> findViewsByType(@Param("roomType") RoomType roomType);
+
+  @Query(
+      ROOM_VIEW
+          + "WHERE r.capacity >= :minCapacity ORDER BY r.capacity ASC, r.roomNumber ASC")
+  List<RoomViewDto> findViewsByCapacityAtLeast(@Param("minCapacity") Short minCapacity);
+
   long countByRoomStatus(RoomStatus roomStatus);
 
   @Query("SELECT r FROM Room r ORDER BY r.id DESC")
@@ -0,0 +1,18 @@
+package master.master.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import master.master.domain.RoomUnavailability;
+import master.master.domain.UnavailabilityStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RoomUnavailabilityRepository extends JpaRepository<RoomUnavailability, Long> {
+
+  List<RoomUnavailability> findByRoomIdOrderByStartDatetime(Long roomId);
+
+  List<RoomUnavailability> findByEndDatetimeAfterAndUnavailabilityStatusIn(
+      LocalDateTime after, Collection<UnavailabilityStatus> statuses);
+}
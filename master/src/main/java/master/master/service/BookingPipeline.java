@@ -0,0 +1,67 @@
+package master.master.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import master.master.web.rest.dto.ReservationDto;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Entry point of every reservation write. Takes the room lock, then runs the transactional booking
+ * so that the availability check, the insert and the commit happen while no other booking of the
+ * same room can interleave on this instance.
+ */
+@Service
+public class BookingPipeline {
+
+  private final RoomBookingLocks roomBookingLocks;
+  private final HotelWebsiteService hotelWebsiteService;
+  private final ReservationService reservationService;
+
+  public BookingPipeline(
+      RoomBookingLocks roomBookingLocks,
+      HotelWebsiteService hotelWebsiteService,
+      ReservationService reservationService) {
+    this.roomBookingLocks = roomBookingLocks;
+    this.hotelWebsiteService = hotelWebsiteService;
+    this.reservationService = reservationService;
+  }
+
+  /**
+   * Book from the hotel website; see {@link HotelWebsiteService#createReservationRequest}. A room
+   * lock timeout is reported as a failed, retryable result.
+   */
+  public Map<String, Object> createReservationRequest(Map<String, Object> reservationData) {
+    try {
+      return bookReservationRequest(reservationData);
+    } catch (ResponseStatusException e) {
+      Map<String, Object> result = new HashMap<>();
+      result.put("success", false);
+      result.put("retryable", true);
+      result.put("message", e.getReason());
+      return result;
+    }
+  }
+
+  /**
+   * Same as {@link #createReservationRequest}, but a room lock timeout is thrown.
+   *
+   * @throws ResponseStatusException 409 if the room lock could not be taken in time
+   * @throws IllegalArgumentException if the room id is missing or invalid
+   */
+  public Map<String, Object> bookReservationRequest(Map<String, Object> reservationData) {
+    Object roomId = reservationData.get("roomId");
+    if (roomId == null) {
+      throw new IllegalArgumentException("roomId is required");
+    }
+    return roomBookingLocks.withRoomLock(
+        Long.valueOf(roomId.toString()),
+        () -> hotelWebsiteService.createReservationRequest(reservationData));
+  }
+
+  /** Book through the REST API; see {@link ReservationService#create}. */
+  public ReservationDto.Info create(Long userId, ReservationDto.Create dto) {
+    return roomBookingLocks.withRoomLock(
+        dto.getRoomId(), () -> reservationService.create(userId, dto));
+  }
+}
@@ -0,0 +1,140 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import master.master.web.rest.dto.RoomSummaryDto;
+import master.master.web.rest.dto.StayWindowDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Flexible-dates search: the best stays of a given length starting anywhere in a horizon.
+ *
+ * <p>For each room that fits the party, one window of {@code nights} nights slides over the
+ * horizon. The number of blocked nights and the price of the window are updated by adding the night
+ * entering it and removing the night leaving it, so each room costs one pass over the horizon
+ * whatever the stay length. Free windows go through a bounded heap that keeps the best {@code
+ * limit} of them.
+ */
+@Service
+public class FlexibleDateSearchService {
+
+  public static final int MAX_HORIZON_DAYS = 366;
+  public static final int MAX_NIGHTS = 30;
+  public static final int MAX_RESULTS = 100;
+
+  public enum Sort {
+    /** Lowest total price first, then earliest check-in. */
+    CHEAPEST,
+    /** Earliest check-in first, then lowest total price. */
+    EARLIEST
+  }
+
+  private static final Comparator<StayWindowDto> BY_PRICE =
+      Comparator.comparingDouble(StayWindowDto::getTotalPrice)
+          .thenComparing(StayWindowDto::getCheckIn)
+          .thenComparing(window -> window.getRoom().getNumber());
+
+  private static final Comparator<StayWindowDto> BY_DATE =
+      Comparator.comparing(StayWindowDto::getCheckIn)
+          .thenComparingDouble(StayWindowDto::getTotalPrice)
+          .thenComparing(window -> window.getRoom().getNumber());
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomCalendarService roomCalendarService;
+
+  public FlexibleDateSearchService(
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      RoomCalendarService roomCalendarService) {
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.roomCalendarService = roomCalendarService;
+  }
+
+  /**
+   * Best stays of {@code nights} nights checking in between {@code from} and {@code from +
+   * horizonDays} (exclusive) in any room holding {@code guests} people.
+   */
+  public List<StayWindowDto> search(
+      LocalDate from, int horizonDays, int nights, int guests, int limit, Sort sort) {
+    if (from == null || from.isBefore(LocalDate.now())) {
+      throw new IllegalArgumentException("Search must start today or later");
+    }
+    if (horizonDays < 1 || horizonDays > MAX_HORIZON_DAYS) {
+      throw new IllegalArgumentException(
+          "Horizon must be between 1 and " + MAX_HORIZON_DAYS + " days");
+    }
+    if (nights < 1 || nights > MAX_NIGHTS) {
+      throw new IllegalArgumentException("Stay must be between 1 and " + MAX_NIGHTS + " nights");
+    }
+    if (guests < 1) {
+      throw new IllegalArgumentException("At least one guest is required");
+    }
+    int size = Math.max(1, Math.min(limit, MAX_RESULTS));
+    Comparator<StayWindowDto> order = sort == Sort.EARLIEST ? BY_DATE : BY_PRICE;
+
+    // Worst kept window at the head, evicted when a better one shows up
+    PriorityQueue<StayWindowDto> best = new PriorityQueue<>(size + 1, order.reversed());
+    int span = horizonDays + nights - 1;
+
+    for (RoomSummaryDto room : roomCatalogService.current().rooms()) {
+      if (!room.getType().isHotelRoom()
+          || !room.getStatus().isSellable()
+          || room.getCapacity() == null
+          || room.getCapacity() < guests) {
+        continue;
+      }
+      BitSet blocked = availabilityIndex.blockedNights(room.getId(), from, span);
+      double[] prices = roomCalendarService.nightlyPrices(room, from, span);
+
+      int blockedInWindow = 0;
+      double windowPrice = 0;
+      for (int night = 0; night < span; night++) {
+        blockedInWindow += blocked.get(night) ? 1 : 0;
+        windowPrice += prices[night];
+        int start = night - nights + 1;
+        if (start < 0) {
+          continue;
+        }
+        if (blockedInWindow == 0) {
+          offer(best, size, order, window(room, from.plusDays(start), nights, windowPrice));
+        }
+        blockedInWindow -= blocked.get(start) ? 1 : 0;
+        windowPrice -= prices[start];
+      }
+    }
+
+    List<StayWindowDto> result = new ArrayList<>(best);
+    result.sort(order);
+    return result;
+  }
+
+  private static void offer(
+      PriorityQueue<StayWindowDto> best,
+      int size,
+      Comparator<StayWindowDto> order,
+      StayWindowDto window) {
+    if (best.size() < size) {
+      best.add(window);
+    } else if (order.compare(window, best.peek()) < 0) {
+      best.poll();
+      best.add(window);
+    }
+  }
+
+  private static StayWindowDto window(
+      RoomSummaryDto room, LocalDate checkIn, int nights, double price) {
+    return StayWindowDto.builder()
+        .checkIn(checkIn)
+        .checkOut(checkIn.plusDays(nights))
+        .nights(nights)
+        .totalPrice(Math.round(price * 100) / 100.0)
+        .room(room)
+        .build();
+  }
+}
@@ -0,0 +1,193 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import master.master.web.rest.dto.GroupBookingDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds a set of rooms that can host a whole group over the same nights.
+ *
+ * <p>Candidate rooms are the sellable hotel rooms free on every night of the stay. Choosing among
+ * them is a 0/1 knapsack on capacity: {@code best[c]} is the best known set of rooms holding {@code
+ * c} guests, where any capacity beyond the group size is counted as the group size. Each room is
+ * tried once, in descending capacity order, so the search costs {@code rooms x guests} steps.
+ */
+@Service
+public class GroupBookingService {
+
+  /** Largest party searched, which bounds the knapsack table. */
+  public static final int MAX_GUESTS = 500;
+
+  public enum Objective {
+    /** Lowest total price, then fewest rooms. */
+    CHEAPEST,
+    /** Fewest rooms, then lowest total price. */
+    FEWEST_ROOMS
+  }
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomPricingService pricingService;
+
+  public GroupBookingService(
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      RoomPricingService pricingService) {
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.pricingService = pricingService;
+  }
+
+  /**
+   * Best combination of available rooms for {@code guests} people. When room floors are known,
+   * a combination on a single floor is preferred over a better one spread across floors.
+   *
+   * @return the combination, or empty if the available rooms cannot host the group
+   */
+  public Optional<GroupBookingDto> findCombination(
+      LocalDate checkIn, LocalDate checkOut, int guests, Objective objective) {
+    if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+      throw new IllegalArgumentException("Check-out date must be after check-in date");
+    }
+    if (guests < 1 || guests > MAX_GUESTS) {
+      throw new IllegalArgumentException("Group size must be between 1 and " + MAX_GUESTS);
+    }
+
+    List<RoomSummaryDto> candidates =
+        roomCatalogService.current().rooms().stream()
+            .filter(room -> room.getStatus().isSellable())
+            .filter(room -> room.getType().isHotelRoom())
+            .filter(room -> room.getCapacity() != null && room.getCapacity() > 0)
+            .filter(room -> availabilityIndex.isAvailable(room.getId(), checkIn, checkOut))
+            .toList();
+    ToLongFunction<RoomSummaryDto> stayCents =
+        room -> {
+          double total = pricingService.quote(room.getId(), room.getPrice(), checkIn, checkOut);
+          return Math.round(total * 100);
+        };
+
+    Map<Integer, List<RoomSummaryDto>> byFloor =
+        candidates.stream()
+            .filter(room -> room.getFloorNumber() != null)
+            .collect(Collectors.groupingBy(RoomSummaryDto::getFloorNumber));
+    Selection best = null;
+    for (List<RoomSummaryDto> floorRooms : byFloor.values()) {
+      Selection selection = solve(floorRooms, guests, objective, stayCents);
+      if (selection != null && (best == null || selection.isBetterThan(best, objective))) {
+        best = selection;
+      }
+    }
+    if (best == null) {
+      best = solve(candidates, guests, objective, stayCents);
+    }
+    if (best == null) {
+      return Optional.empty();
+    }
+
+    int nights = (int) ChronoUnit.DAYS.between(checkIn, checkOut);
+    List<RoomSummaryDto> rooms = best.rooms();
+    Integer floor = rooms.get(0).getFloorNumber();
+    boolean sameFloor =
+        rooms.stream().allMatch(room -> Objects.equals(room.getFloorNumber(), floor));
+    return Optional.of(
+        GroupBookingDto.builder()
+            .checkIn(checkIn)
+            .checkOut(checkOut)
+            .nights(nights)
+            .guests(guests)
+            .totalCapacity(rooms.stream().mapToInt(RoomSummaryDto::getCapacity).sum())
+            .pricePerNight(Math.round((double) best.cents() / nights) / 100.0)
+            .totalPrice(best.cents() / 100.0)
+            .floorNumber(sameFloor ? floor : null)
+            .rooms(rooms)
+            .build());
+  }
+
+  /** Knapsack over {@code rooms}; null when their total capacity is below {@code guests}. */
+  private static Selection solve(
+      List<RoomSummaryDto> rooms,
+      int guests,
+      Objective objective,
+      ToLongFunction<RoomSummaryDto> stayCents) {
+    if (rooms.stream().mapToInt(RoomSummaryDto::getCapacity).sum() < guests) {
+      return null;
+    }
+    List<RoomSummaryDto> ordered =
+        rooms.stream()
+            .sorted(Comparator.comparing(RoomSummaryDto::getCapacity).reversed())
+            .toList();
+    int count = ordered.size();
+
+    // cents[c] and roomCounts[c] describe the best set found so far covering c guests
+    long[] cents = new long[guests + 1];
+    int[] roomCounts = new int[guests + 1];
+    Arrays.fill(cents, Long.MAX_VALUE);
+    cents[0] = 0;
+    // previous[i][c] is the coverage before room i was added to reach c, or -1 if it was not
+    int[][] previous = new int[count][guests + 1];
+
+    for (int i = 0; i < count; i++) {
+      RoomSummaryDto room = ordered.get(i);
+      int capacity = room.getCapacity();
+      long price = stayCents.applyAsLong(room);
+      Arrays.fill(previous[i], -1);
+      // Descending so that each room is used at most once
+      for (int covered = guests - 1; covered >= 0; covered--) {
+        if (cents[covered] == Long.MAX_VALUE) {
+          continue;
+        }
+        int next = Math.min(guests, covered + capacity);
+        long candidateCents = cents[covered] + price;
+        int candidateRooms = roomCounts[covered] + 1;
+        if (cents[next] == Long.MAX_VALUE
+            || isBetter(candidateCents, candidateRooms, cents[next], roomCounts[next], objective)) {
+          cents[next] = candidateCents;
+          roomCounts[next] = candidateRooms;
+          previous[i][next] = covered;
+        }
+      }
+    }
+    if (cents[guests] == Long.MAX_VALUE) {
+      return null;
+    }
+
+    // Walk the decisions back from the last room to rebuild the chosen set
+    List<RoomSummaryDto> chosen = new ArrayList<>();
+    int covered = guests;
+    for (int i = count - 1; i >= 0 && covered > 0; i--) {
+      if (previous[i][covered] >= 0) {
+        chosen.add(ordered.get(i));
+        covered = previous[i][covered];
+      }
+    }
+    chosen.sort(Comparator.comparing(RoomSummaryDto::getNumber));
+    return new Selection(chosen, cents[guests], roomCounts[guests]);
+  }
+
+  private static boolean isBetter(
+      long cents, int rooms, long otherCents, int otherRooms, Objective objective) {
+    if (objective == Objective.FEWEST_ROOMS) {
+      return rooms < otherRooms || (rooms == otherRooms && cents < otherCents);
+    }
+    return cents < otherCents || (cents == otherCents && rooms < otherRooms);
+  }
+
+  /** Rooms of one solution, with their summed stay price in cents. */
+  private record Selection(List<RoomSummaryDto> rooms, long cents, int roomCount) {
+
+    boolean isBetterThan(Selection other, Objective objective) {
+      return isBetter(cents, roomCount, other.cents, other.roomCount, objective);
+    }
+  }
+}
@@ -1,24 +1,33 @@
 package master.master.service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import master.master.domain.Reservation;
 import master.master.domain.ReservationStatus;
-import master.master.domain.RoomReview;
 import master.master.domain.Room;
+import master.master.domain.RoomRatingStats;
 import master.master.domain.RoomStatus;
-import master.master.domain.User;
 import master.master.repository.ReservationRepository;
 import master.master.repository.ReviewRepository;
+import master.master.repository.RoomRatingStatsRepository;
 import master.master.repository.RoomRepository;
 import master.master.repository.UserRepository;
+import master.master.web.rest.dto.GuestBookReviewDto;
+import master.master.web.rest.dto.ReviewStatsOverviewDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 /**
  * Service for handling hotel website functionality with real database integration. Provides methods
@@ -28,70 +37,104 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class HotelWebsiteService {
 
+  private static final int MAX_REVIEWS_PAGE_SIZE = 50;
+
   private final RoomRepository roomRepository;
   private final ReviewRepository reviewRepository;
   private final ReservationRepository reservationRepository;
   private final UserRepository userRepository;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomRatingStatsRepository ratingStatsRepository;
+  private final RoomCatalogService roomCatalogService;
+  private final RoomPricingService pricingService;
+  private final ReviewStatsService reviewStatsService;
 
   public HotelWebsiteService(
       RoomRepository roomRepository,
       ReviewRepository reviewRepository,
       ReservationRepository reservationRepository,
-      UserRepository userRepository) {
+      UserRepository userRepository,
+      RoomAvailabilityIndex availabilityIndex,
+      RoomRatingStatsRepository ratingStatsRepository,
+      RoomCatalogService roomCatalogService,
+      RoomPricingService pricingService,
+      ReviewStatsService reviewStatsService) {
     this.roomRepository = roomRepository;
     this.reviewRepository = reviewRepository;
     this.reservationRepository = reservationRepository;
     this.userRepository = userRepository;
+    this.availabilityIndex = availabilityIndex;
+    this.ratingStatsRepository = ratingStatsRepository;
+    this.roomCatalogService = roomCatalogService;
+    this.pricingService = pricingService;
+    this.reviewStatsService = reviewStatsService;
   }
 
   /**
-   * Get available rooms for specific dates and guest count. Filters by room capacity and
-   * availability status.
+   * Get available rooms for specific dates and guest count. Rooms come from the in-memory catalog
+   * and are checked against the availability index for the requested nights.
    */
   public List<Map<String, Object>> getAvailableRooms(
       LocalDate checkIn, LocalDate checkOut, int adults, int children) {
+    validateStayDates(checkIn, checkOut);
     int totalGuests = adults + children;
 
-    // Get all available rooms that can accommodate the guests
-    List<Room> availableRooms =
-        roomRepository.findAll().stream()
-            .filter(room -> room.getStatus() == RoomStatus.AVAILABLE)
+    // Get the sellable hotel rooms that can accommodate the guests and are free on those nights
+    List<RoomSummaryDto> availableRooms =
+        roomCatalogService.current().rooms().stream()
+            .filter(room -> room.getStatus().isSellable())
             .filter(room -> room.getType().isHotelRoom()) // Hotel rooms
             .filter(room -> room.getCapacity() != null && room.getCapacity() >= totalGuests)
+            .filter(room -> availabilityIndex.isAvailable(room.getId(), checkIn, checkOut))
             .collect(Collectors.toList());
 
-    return availableRooms.stream().map(this::convertRoomToMap).collect(Collectors.toList());
+    List<Map<String, Object>> roomMaps = convertRoomsToMaps(availableRooms);
+    // Every room returned here is bookable for the requested stay
+    roomMaps.forEach(roomMap -> roomMap.put("status", RoomStatus.AVAILABLE.getDisplayName()));
+    return roomMaps;
   }
 
   /** Get all room types with basic information. */
   public List<Map<String, Object>> getAllRoomTypes() {
-    List<Room> allRooms =
-        roomRepository.findAll().stream()
+    List<RoomSummaryDto> allRooms =
+        roomCatalogService.current().rooms().stream()
             .filter(room -> room.getType().isHotelRoom()) // Hotel rooms
             .collect(Collectors.toList());
 
-    return allRooms.stream().map(this::convertRoomToMap).collect(Collectors.toList());
+    return convertRoomsToMaps(allRooms);
   }
 
   /**
    * Get validated guest reviews for the "Livret d'Or". Only returns reviews that have been verified
-   * by an admin.
+   * by an admin, newest first, one keyset page after {@code after} (the cursor of the last review
+   * already shown). The {@code offset} of older clients is only honoured on the first page, by
+   * reading that many more rows.
    */
-  public List<Map<String, Object>> getValidatedReviews(int offset, int limit) {
-    List<RoomReview> verifiedReviews =
-        reviewRepository.findAll().stream()
-            .filter(review -> Boolean.TRUE.equals(review.getVerified()))
-            .sorted((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt()))
-            .skip(offset)
-            .limit(limit)
-            .collect(Collectors.toList());
+  public List<GuestBookReviewDto> getValidatedReviews(String after, int offset, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_REVIEWS_PAGE_SIZE));
+    LocalDateTime beforeCreatedAt = LocalDateTime.of(9999, 12, 31, 0, 0);
+    long beforeId = Long.MAX_VALUE;
+    int skip = 0;
+    if (after != null && !after.isBlank()) {
+      int separator = after.lastIndexOf('_');
+      try {
+        beforeCreatedAt = LocalDateTime.parse(after.substring(0, separator));
+        beforeId = Long.parseLong(after.substring(separator + 1));
+      } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + after, e);
+      }
+    } else {
+      skip = Math.max(0, offset);
+    }
 
-    return verifiedReviews.stream().map(this::convertReviewToMap).collect(Collectors.toList());
+    List<GuestBookReviewDto> reviews =
+        reviewRepository.findVerifiedBefore(beforeCreatedAt, beforeId, Limit.of(skip + size));
+    return skip == 0 ? reviews : reviews.subList(Math.min(skip, reviews.size()), reviews.size());
   }
 
   /** Get latest validated reviews (most recent first). */
-  public List<Map<String, Object>> getLatestValidatedReviews(int limit) {
-    return getValidatedReviews(0, limit);
+  public List<GuestBookReviewDto> getLatestValidatedReviews(int limit) {
+    return getValidatedReviews(null, 0, limit);
   }
 
   /** Create a reservation request. */
@@ -101,11 +144,12 @@ public class HotelWebsiteService {
 
     try {
       // Extract reservation data
-      Long roomId = Long.valueOf(reservationData.get("roomId").toString());
-      Long userId = Long.valueOf(reservationData.get("userId").toString());
-      LocalDate checkIn = LocalDate.parse(reservationData.get("checkIn").toString());
-      LocalDate checkOut = LocalDate.parse(reservationData.get("checkOut").toString());
-      Boolean payNow = Boolean.valueOf(reservationData.get("payNow").toString());
+      Long roomId = Long.valueOf(required(reservationData, "roomId"));
+      Long userId = Long.valueOf(required(reservationData, "userId"));
+      LocalDate checkIn = LocalDate.parse(required(reservationData, "checkIn"));
+      LocalDate checkOut = LocalDate.parse(required(reservationData, "checkOut"));
+      Boolean payNow = Boolean.valueOf(required(reservationData, "payNow"));
+      validateStayDates(checkIn, checkOut);
 
       // Verify room availability
       Optional<Room> roomOpt = roomRepository.findById(roomId);
@@ -116,9 +160,11 @@ public class HotelWebsiteService {
       }
 
       Room room = roomOpt.get();
-      if (room.getStatus() != RoomStatus.AVAILABLE) {
+      if (!room.getStatus().isSellable()
+          || !availabilityIndex.isAvailable(roomId, checkIn, checkOut)
+          || reservationRepository.existsOverlappingReservation(roomId, checkIn, checkOut)) {
         result.put("success", false);
-        result.put("message", "Room is not available");
+        result.put("message", "Room is not available for the selected dates");
         return result;
       }
 
@@ -134,27 +180,46 @@ public class HotelWebsiteService {
       reservation.setPaid(payNow);
       reservation.setReservationStatus(ReservationStatus.PENDING);
       reservation.setTotalAmount(
-          java.math.BigDecimal.valueOf(calculateTotalPrice(room.getPrice(), checkIn, checkOut)));
+          java.math.BigDecimal.valueOf(calculateTotalPrice(room, checkIn, checkOut)));
 
       reservationRepository.save(reservation);
 
-      // Update room status to reserved
-      room.setStatus(RoomStatus.RESERVED);
-      roomRepository.save(room);
-
       result.put("success", true);
       result.put("message", "Reservation created successfully");
       result.put("reservationId", reservation.getId());
-      result.put("totalPrice", calculateTotalPrice(room.getPrice(), checkIn, checkOut));
+      result.put("totalPrice", calculateTotalPrice(room, checkIn, checkOut));
 
+    } catch (DataIntegrityViolationException e) {
+      if (!ReservationService.isStayOverlap(e)) {
+        throw e;
+      }
+      // Another booking took these nights after our check; roll back quietly and report it
+      TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+      result.put("success", false);
+      result.put("message", "Room is not available for the selected dates");
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      // Invalid request: sending it again cannot succeed
+      result.put("success", false);
+      result.put("message", "Error while creating the reservation: " + e.getMessage());
     } catch (Exception e) {
+      // Unexpected failure, typically of the database: the same request may succeed later
+      TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
       result.put("success", false);
+      result.put("retryable", true);
       result.put("message", "Error while creating the reservation: " + e.getMessage());
     }
 
     return result;
   }
 
+  private static String required(Map<String, Object> data, String field) {
+    Object value = data.get(field);
+    if (value == null) {
+      throw new IllegalArgumentException(field + " is required");
+    }
+    return value.toString();
+  }
+
   /** Get hotel information and statistics. */
   public Map<String, Object> getHotelInformation() {
     Map<String, Object> hotelInfo = new HashMap<>();
@@ -172,24 +237,34 @@ public class HotelWebsiteService {
             .filter(room -> room.getType().isHotelRoom())
             .count();
 
-    long totalReviews = reviewRepository.count();
-    long verifiedReviews =
-        reviewRepository.findAll().stream().filter(review -> Boolean.TRUE.equals(review.getVerified())).count();
-
-    Double averageRating = reviewRepository.getAverageRating();
+    ReviewStatsOverviewDto reviewStats = reviewStatsService.overview();
 
     hotelInfo.put("totalRooms", totalRooms);
     hotelInfo.put("availableRooms", availableRooms);
-    hotelInfo.put("totalReviews", totalReviews);
-    hotelInfo.put("verifiedReviews", verifiedReviews);
-    hotelInfo.put(
-        "averageRating", averageRating != null ? Math.round(averageRating * 10.0) / 10.0 : 0.0);
+    hotelInfo.put("totalReviews", reviewStats.getTotalReviews());
+    hotelInfo.put("verifiedReviews", reviewStats.getVerifiedReviews());
+    hotelInfo.put("averageRating", Math.round(reviewStats.getAverageRating() * 10.0) / 10.0);
 
     return hotelInfo;
   }
 
-  /** Convert Room entity to Map for API response. */
-  private Map<String, Object> convertRoomToMap(Room room) {
+  /**
+   * Convert catalog rooms to API maps. Rating statistics for the whole page are read with a single
+   * query.
+   */
+  private List<Map<String, Object>> convertRoomsToMaps(List<RoomSummaryDto> rooms) {
+    List<Long> roomIds = rooms.stream().map(RoomSummaryDto::getId).toList();
+    Map<Long, RoomRatingStats> statsByRoom =
+        ratingStatsRepository.findAllById(roomIds).stream()
+            .collect(Collectors.toMap(RoomRatingStats::getRoomId, Function.identity()));
+
+    return rooms.stream()
+        .map(room -> convertRoomToMap(room, statsByRoom.get(room.getId())))
+        .collect(Collectors.toList());
+  }
+
+  /** Convert a catalog room to Map for API response. */
+  private Map<String, Object> convertRoomToMap(RoomSummaryDto room, RoomRatingStats stats) {
     Map<String, Object> roomMap = new HashMap<>();
     roomMap.put("id", room.getId());
     roomMap.put("number", room.getNumber());
@@ -203,7 +278,8 @@ public class HotelWebsiteService {
             : "Comfortable room with all amenities");
     roomMap.put("price", room.getPrice() != null ? room.getPrice() : 150.0);
     roomMap.put("status", room.getStatus().getDisplayName());
-    roomMap.put("floorNumber", null);
+    roomMap.put("floorNumber", room.getFloorNumber());
+    roomMap.put("imageUrl", room.getImageUrl());
 
     // Features
     Map<String, Boolean> features = new HashMap<>();
@@ -213,9 +289,8 @@ public class HotelWebsiteService {
     features.put("hasAirConditioning", true);
     roomMap.put("features", features);
 
-    // Amenities from database
-    List<String> amenities =
-        room.getAmenities().stream().map(amenity -> amenity.getLabel()).toList();
+    // Amenities from the catalog
+    List<String> amenities = room.getAmenities();
     if (amenities != null && !amenities.isEmpty()) {
       roomMap.put("amenities", amenities);
     } else {
@@ -225,57 +300,24 @@ public class HotelWebsiteService {
           Arrays.asList("Free WiFi", "Flat-screen TV", "Safe", "Hair dryer"));
     }
 
-    // Get average rating for this room
-    Double avgRating = reviewRepository.getAverageRatingByRoomId(room.getId());
-    roomMap.put("rating", avgRating != null ? Math.round(avgRating * 10.0) / 10.0 : 0.0);
-
-    // Get review count for this room
-    Long reviewCount = reviewRepository.countByReservationRoomId(room.getId());
-    roomMap.put("reviewCount", reviewCount != null ? reviewCount : 0);
+    // Rating and review count from the precomputed room statistics
+    double avgRating = stats != null ? stats.getAverageRating() : 0.0;
+    roomMap.put("rating", Math.round(avgRating * 10.0) / 10.0);
+    roomMap.put("reviewCount", stats != null ? stats.getRatingCount().longValue() : 0L);
 
     return roomMap;
   }
 
-  /** Convert RoomReview entity to Map for API response. */
-  private Map<String, Object> convertReviewToMap(RoomReview review) {
-    Map<String, Object> reviewMap = new HashMap<>();
-    reviewMap.put("id", review.getId());
-    reviewMap.put("rating", review.getRating());
-    reviewMap.put("comment", review.getComment());
-    reviewMap.put("reviewDate", review.getCreatedAt().toLocalDate().toString());
-    reviewMap.put("createdAt", review.getCreatedAt().toString());
-    reviewMap.put("isAnonymous", Boolean.TRUE.equals(review.getAnonymous()));
-    reviewMap.put("helpfulCount", 0);
-
-    // Get room information
-    if (review.getReservation() != null && review.getReservation().getRoom() != null) {
-      Room room = review.getReservation().getRoom();
-      reviewMap.put("roomNumber", room.getNumber());
-      reviewMap.put(
-          "roomName", room.getName() != null ? room.getName() : "Room " + room.getNumber());
-    }
-
-    // Get author information (if not anonymous)
-    if (!Boolean.TRUE.equals(review.getAnonymous())) {
-      if (review.getReservation() != null && review.getReservation().getClient() != null) {
-        User user = review.getReservation().getClient().getUser();
-        // Only show first name for privacy
-        String authorName = user.getFirstName() != null ? user.getFirstName() : "Client";
-        reviewMap.put("authorName", authorName);
-      } else {
-        reviewMap.put("authorName", "Client");
-      }
-    } else {
-      reviewMap.put("authorName", "Client anonyme");
+  /** Reject stays whose check-out is not strictly after check-in. */
+  private void validateStayDates(LocalDate checkIn, LocalDate checkOut) {
+    if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+      throw new IllegalArgumentException("Check-out date must be after check-in date");
     }
-
-    return reviewMap;
   }
 
-  /** Calculate total price for a stay. */
-  private double calculateTotalPrice(Double roomPrice, LocalDate checkIn, LocalDate checkOut) {
-    if (roomPrice == null) roomPrice = 150.0; // Default price
-    long nights = checkIn.until(checkOut).getDays();
-    return roomPrice * nights;
+  /** Calculate total price for a stay from the dynamic nightly rates. */
+  private double calculateTotalPrice(Room room, LocalDate checkIn, LocalDate checkOut) {
+    Double roomPrice = room.getPrice() != null ? room.getPrice() : 150.0; // Default price
+    return pricingService.quote(room.getId(), roomPrice, checkIn, checkOut);
   }
 }
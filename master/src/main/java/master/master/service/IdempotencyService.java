@@ -0,0 +1,183 @@
+package master.master.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import master.master.domain.IdempotencyKey;
+import master.master.repository.IdempotencyKeyRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays its outcome on retries.
+ *
+ * <p>Recent outcomes are kept in a bounded, least-recently-used map in memory. Every key is also
+ * claimed in the {@code idempotency_keys} table before the request runs, so a retry reaching
+ * another instance, or arriving after the key left the memory map, still gets the first outcome.
+ * Keys are kept for one day.
+ *
+ * <p>Only final outcomes are stored. When the action throws, the claim is deleted and the client
+ * may retry with the same key. A claim that still has no outcome after {@value
+ * #CLAIM_LEASE_SECONDS} seconds belongs to a request that died midway, and a retry takes it over.
+ */
+@Service
+public class IdempotencyService {
+
+  private static final Logger logger = Logger.getLogger(IdempotencyService.class.getName());
+
+  private static final int MAX_KEY_LENGTH = 100;
+  private static final int MAX_CACHED_KEYS = 10_000;
+  private static final long RETENTION_HOURS = 24;
+  static final long CLAIM_LEASE_SECONDS = 60;
+
+  private final IdempotencyKeyRepository repository;
+  private final ObjectMapper objectMapper;
+
+  private final Map<String, Stored> recent =
+      new LinkedHashMap<>(1_024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+          return size() > MAX_CACHED_KEYS;
+        }
+      };
+
+  public IdempotencyService(IdempotencyKeyRepository repository, ObjectMapper objectMapper) {
+    this.repository = repository;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Response of an idempotent request: HTTP status and JSON body. */
+  public record Outcome(int status, Map<String, Object> body) {}
+
+  private record Stored(String requestHash, Outcome outcome) {}
+
+  /**
+   * Run {@code action} unless {@code key} was already used, in which case the outcome of the first
+   * run is returned. An action that throws is not recorded: the exception is rethrown and the key
+   * can be used again.
+   *
+   * @param request the request payload, compared with the first request sent with the same key
+   * @throws IllegalArgumentException if the key is blank or too long
+   * @throws ResponseStatusException 422 if the key was used for a different request, 409 if the
+   *     first request with this key is still running
+   */
+  public Outcome execute(String key, Map<String, Object> request, Supplier<Outcome> action) {
+    if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException(
+          "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+    }
+    String requestHash = hash(request);
+
+    Stored cached;
+    synchronized (recent) {
+      cached = recent.get(key);
+    }
+    if (cached != null) {
+      return replay(cached.requestHash(), requestHash, cached.outcome());
+    }
+
+    if (repository.claim(key, requestHash) == 0) {
+      IdempotencyKey existing =
+          repository
+              .findById(key)
+              .orElseThrow(
+                  () ->
+                      new ResponseStatusException(
+                          HttpStatus.CONFLICT, "Idempotency-Key is being reused, please retry"));
+      if (existing.getResponseStatus() != null) {
+        Outcome outcome =
+            new Outcome(existing.getResponseStatus(), read(existing.getResponseBody()));
+        remember(key, existing.getRequestHash(), outcome);
+        return replay(existing.getRequestHash(), requestHash, outcome);
+      }
+      if (!existing.getRequestHash().equals(requestHash)) {
+        throw reusedKey();
+      }
+      if (repository.takeOverStale(key, requestHash, CLAIM_LEASE_SECONDS) == 0) {
+        throw new ResponseStatusException(
+            HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+      }
+    }
+
+    Outcome outcome;
+    try {
+      outcome = action.get();
+    } catch (RuntimeException e) {
+      // Nothing was recorded, so the client may retry with the same key
+      repository.deleteById(key);
+      throw e;
+    }
+    IdempotencyKey record = repository.findById(key).orElseGet(IdempotencyKey::new);
+    record.setKey(key);
+    record.setRequestHash(requestHash);
+    record.setResponseStatus(outcome.status());
+    record.setResponseBody(write(outcome.body()));
+    repository.save(record);
+    remember(key, requestHash, outcome);
+    return outcome;
+  }
+
+  /** Forget keys older than the retention period. */
+  @Scheduled(cron = "0 30 3 * * *")
+  public void purgeExpiredKeys() {
+    int deleted = repository.deleteCreatedBefore(LocalDateTime.now().minusHours(RETENTION_HOURS));
+    logger.info("Idempotency keys purged: " + deleted);
+  }
+
+  private void remember(String key, String requestHash, Outcome outcome) {
+    synchronized (recent) {
+      recent.put(key, new Stored(requestHash, outcome));
+    }
+  }
+
+  private static Outcome replay(String storedHash, String requestHash, Outcome outcome) {
+    if (!storedHash.equals(requestHash)) {
+      throw reusedKey();
+    }
+    return outcome;
+  }
+
+  private static ResponseStatusException reusedKey() {
+    return new ResponseStatusException(
+        HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for another request");
+  }
+
+  private String hash(Map<String, Object> request) {
+    try {
+      // Sorted keys, so that the same fields in another order give the same hash
+      byte[] json = objectMapper.writeValueAsBytes(new TreeMap<>(request));
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Request cannot be serialized", e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private String write(Map<String, Object> body) {
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Response cannot be serialized", e);
+    }
+  }
+
+  private Map<String, Object> read(String body) {
+    try {
+      return body == null ? Map.of() : objectMapper.readValue(body, new TypeReference<>() {});
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Stored response cannot be read", e);
+    }
+  }
+}
@@ -0,0 +1,228 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import master.master.domain.Reservation;
+import master.master.domain.ReservationStatus;
+import master.master.domain.RoomType;
+import master.master.event.ReservationChangedEvent;
+import master.master.repository.ReservationRepository;
+import master.master.web.rest.dto.OccupancyForecastDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Expected occupancy per room type and night over the next {@value #HORIZON_DAYS} days.
+ *
+ * <p>Rooms already booked ("on the books") are kept as a difference array per room type: a stay
+ * adds one at its first night and removes one after its last, so a booking is applied in constant
+ * time and the per-night counts are the prefix sums of the array. Bookings still to come are
+ * estimated from the pickup curve of the past year: for each lead time {@code L}, the ratio between
+ * the rooms finally sold for a night and those already sold {@code L} days before it.
+ *
+ * <p>Everything is rebuilt from the database at startup and every night, when the horizon moves
+ * by a day, and kept up to date in between from {@link ReservationChangedEvent}.
+ */
+@Service
+public class OccupancyForecastService {
+
+  private static final Logger logger =
+      Logger.getLogger(OccupancyForecastService.class.getName());
+
+  public static final int HORIZON_DAYS = 365;
+  private static final int HISTORY_DAYS = 365;
+
+  private final ReservationRepository reservationRepository;
+  private final RoomCatalogService roomCatalogService;
+
+  private final Map<Long, Stay> stays = new ConcurrentHashMap<>();
+  // Room types of one catalog version, rebuilt only when the catalog changes
+  private volatile RoomTypes roomTypes = new RoomTypes(-1, Map.of());
+  private LocalDate origin = LocalDate.now();
+  private int[][] onTheBooksDiff = new int[RoomType.values().length][HORIZON_DAYS + 1];
+  private double[][] pickup = new double[RoomType.values().length][HORIZON_DAYS];
+
+  public OccupancyForecastService(
+      ReservationRepository reservationRepository, RoomCatalogService roomCatalogService) {
+    this.reservationRepository = reservationRepository;
+    this.roomCatalogService = roomCatalogService;
+  }
+
+  /** Reload the bookings on the books and recompute the pickup curves. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "0 15 0 * * *")
+  public void rebuild() {
+    LocalDate today = LocalDate.now();
+    Map<Long, RoomType> roomTypes = roomTypes();
+    List<ReservationStatus> live =
+        Arrays.stream(ReservationStatus.values())
+            .filter(ReservationStatus::blocksInventory)
+            .toList();
+    List<Reservation> reservations =
+        reservationRepository.findByEndDatetimeAfterAndReservationStatusIn(
+            today.minusDays(HISTORY_DAYS).atStartOfDay(), live);
+
+    int types = RoomType.values().length;
+    int[][] diff = new int[types][HORIZON_DAYS + 1];
+    // soldAtLead[t][L]: past room-nights of type t already booked L or more days ahead
+    long[][] soldAtLead = new long[types][HORIZON_DAYS + 1];
+    Map<Long, Stay> loaded = new ConcurrentHashMap<>();
+
+    for (Reservation reservation : reservations) {
+      RoomType type = roomTypes.get(reservation.getRoom().getId());
+      if (type == null) {
+        continue;
+      }
+      Stay stay = stay(type, reservation.getStartDatetime(), reservation.getEndDatetime());
+      loaded.put(reservation.getId(), stay);
+      apply(diff, today, stay, 1);
+
+      LocalDate booked =
+          reservation.getCreatedAt() != null
+              ? reservation.getCreatedAt().toLocalDate()
+              : stay.from();
+      LocalDate pastEnd = stay.to().isBefore(today) ? stay.to() : today;
+      for (LocalDate night = stay.from(); night.isBefore(pastEnd); night = night.plusDays(1)) {
+        long lead = Math.max(0, ChronoUnit.DAYS.between(booked, night));
+        soldAtLead[type.ordinal()][(int) Math.min(lead, HORIZON_DAYS)]++;
+      }
+    }
+
+    double[][] curves = new double[types][HORIZON_DAYS];
+    for (int t = 0; t < types; t++) {
+      // Suffix sums turn "booked exactly L days ahead" into "booked at least L days ahead"
+      for (int lead = HORIZON_DAYS - 1; lead >= 0; lead--) {
+        soldAtLead[t][lead] += soldAtLead[t][lead + 1];
+      }
+      long finallySold = soldAtLead[t][0];
+      for (int lead = 0; lead < HORIZON_DAYS; lead++) {
+        curves[t][lead] =
+            soldAtLead[t][lead] > 0 ? (double) finallySold / soldAtLead[t][lead] : 1.0;
+      }
+    }
+
+    synchronized (this) {
+      origin = today;
+      onTheBooksDiff = diff;
+      pickup = curves;
+      stays.clear();
+      stays.putAll(loaded);
+    }
+    logger.info("Occupancy forecast rebuilt from " + reservations.size() + " reservations");
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onReservationChanged(ReservationChangedEvent event) {
+    if (event.reservationId() == null) {
+      return;
+    }
+    RoomType type = event.blocksInventory() ? roomTypes().get(event.roomId()) : null;
+    Stay stay =
+        type != null && event.startDatetime() != null && event.endDatetime() != null
+            ? stay(type, event.startDatetime(), event.endDatetime())
+            : null;
+    synchronized (this) {
+      Stay previous =
+          stay != null
+              ? stays.put(event.reservationId(), stay)
+              : stays.remove(event.reservationId());
+      if (previous != null) {
+        apply(onTheBooksDiff, origin, previous, -1);
+      }
+      if (stay != null) {
+        apply(onTheBooksDiff, origin, stay, 1);
+      }
+    }
+  }
+
+  /** Forecast of every hotel room type, or of {@code only} when given. */
+  public List<OccupancyForecastDto> forecast(RoomType only, int days) {
+    int length = Math.max(1, Math.min(days, HORIZON_DAYS));
+    Map<RoomType, Long> sellableRooms =
+        roomCatalogService.current().rooms().stream()
+            .filter(room -> room.getStatus().isSellable())
+            .collect(Collectors.groupingBy(RoomSummaryDto::getType, Collectors.counting()));
+    return Arrays.stream(RoomType.values())
+        .filter(type -> type.isHotelRoom() && (only == null || only == type))
+        .map(type -> forecastOf(type, sellableRooms.getOrDefault(type, 0L).intValue(), length))
+        .toList();
+  }
+
+  private synchronized OccupancyForecastDto forecastOf(RoomType type, int rooms, int days) {
+    int[] diff = onTheBooksDiff[type.ordinal()];
+    double[] curve = pickup[type.ordinal()];
+    // The forecast may be read a little after midnight, before the nightly rebuild
+    int skip = (int) Math.max(0, ChronoUnit.DAYS.between(origin, LocalDate.now()));
+    int length = Math.min(days, HORIZON_DAYS - skip);
+
+    int[] onTheBooks = new int[length];
+    double[] expected = new double[length];
+    double[] occupancy = new double[length];
+    int booked = 0;
+    for (int day = 0; day < skip + length; day++) {
+      booked += diff[day];
+      if (day < skip) {
+        continue;
+      }
+      int night = day - skip;
+      onTheBooks[night] = booked;
+      expected[night] = Math.min(rooms, booked * curve[night]);
+      occupancy[night] = rooms > 0 ? expected[night] / rooms : 0.0;
+    }
+    return OccupancyForecastDto.builder()
+        .type(type)
+        .rooms(rooms)
+        .from(origin.plusDays(skip))
+        .onTheBooks(onTheBooks)
+        .expectedRooms(expected)
+        .expectedOccupancy(occupancy)
+        .build();
+  }
+
+  private Map<Long, RoomType> roomTypes() {
+    RoomCatalogService.Snapshot catalog = roomCatalogService.current();
+    RoomTypes cached = roomTypes;
+    if (cached.version() != catalog.version()) {
+      cached =
+          new RoomTypes(
+              catalog.version(),
+              catalog.rooms().stream()
+                  .collect(Collectors.toMap(RoomSummaryDto::getId, RoomSummaryDto::getType)));
+      roomTypes = cached;
+    }
+    return cached.byRoom();
+  }
+
+  /** Add {@code delta} to the nights of the stay that fall inside the horizon. */
+  private static void apply(int[][] diff, LocalDate origin, Stay stay, int delta) {
+    long from = Math.max(0, ChronoUnit.DAYS.between(origin, stay.from()));
+    long to = Math.min(HORIZON_DAYS, ChronoUnit.DAYS.between(origin, stay.to()));
+    if (from >= to) {
+      return;
+    }
+    diff[stay.type().ordinal()][(int) from] += delta;
+    diff[stay.type().ordinal()][(int) to] -= delta;
+  }
+
+  /** Nights {@code [from, to)} of a stay, with the same rounding as the availability index. */
+  private static Stay stay(RoomType type, LocalDateTime start, LocalDateTime end) {
+    LocalDate from = start.toLocalDate();
+    LocalDate to = end.toLocalDate();
+    return new Stay(type, from, to.isAfter(from) ? to : from.plusDays(1));
+  }
+
+  private record Stay(RoomType type, LocalDate from, LocalDate to) {}
+
+  private record RoomTypes(long version, Map<Long, RoomType> byRoom) {}
+}
@@ -0,0 +1,184 @@
+package master.master.service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+import master.master.domain.ReservationStatus;
+import master.master.event.ChangeType;
+import master.master.event.ReservationChangedEvent;
+import master.master.web.rest.dto.ReservationStreamEventDto;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes committed reservation changes to the connected employee dashboards.
+ *
+ * <p>Every change gets a sequence number and is kept in a ring buffer of the last {@value
+ * #BUFFER_SIZE} events. Event ids are the sequence number prefixed with the boot time of this
+ * instance, as in {@code 1760000000000-42}, because sequence numbers restart on every boot. A
+ * dashboard that reconnects with a {@code Last-Event-ID} receives the events it missed from the
+ * buffer. When they have already been overwritten, or the id comes from an earlier boot, it gets a
+ * {@code reset} event and should reload its lists once.
+ *
+ * <p>All buffer writes, replays and sends run on a single dispatcher thread. Events therefore reach
+ * each dashboard in sequence order without locking, and a slow connection never delays the
+ * transaction that booked the room.
+ */
+@Service
+public class ReservationEventStream {
+
+  private static final Logger logger = Logger.getLogger(ReservationEventStream.class.getName());
+
+  public static final int BUFFER_SIZE = 1024;
+  private static final long EMITTER_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+  private final ExecutorService dispatcher =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "reservation-event-stream");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  // Only touched by the dispatcher thread
+  private final ReservationStreamEventDto[] buffer = new ReservationStreamEventDto[BUFFER_SIZE];
+  private final List<SseEmitter> emitters = new ArrayList<>();
+  private final String epoch = Long.toString(System.currentTimeMillis());
+  private long lastId;
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onReservationChanged(ReservationChangedEvent event) {
+    if (event.reservationId() == null) {
+      return;
+    }
+    LocalDateTime occurredAt = LocalDateTime.now();
+    dispatch(() -> publish(event, occurredAt));
+  }
+
+  /**
+   * Open a stream for one dashboard, replaying the buffered events after {@code lastEventId}
+   * first.
+   */
+  public SseEmitter subscribe(String lastEventId) {
+    SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+    Runnable unsubscribe = () -> dispatch(() -> emitters.remove(emitter));
+    emitter.onCompletion(unsubscribe);
+    emitter.onTimeout(unsubscribe);
+    emitter.onError(error -> unsubscribe.run());
+    dispatch(
+        () -> {
+          if (replay(emitter, lastEventId)) {
+            emitters.add(emitter);
+          }
+        });
+    return emitter;
+  }
+
+  /** Keep idle connections open through proxies and notice dashboards that went away. */
+  @Scheduled(fixedRate = 15000)
+  public void heartbeat() {
+    dispatch(
+        () ->
+            emitters.removeIf(
+                emitter -> !send(emitter, SseEmitter.event().comment("heartbeat"))));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdownNow();
+  }
+
+  private void publish(ReservationChangedEvent event, LocalDateTime occurredAt) {
+    ReservationStreamEventDto streamEvent =
+        ReservationStreamEventDto.builder()
+            .id(++lastId)
+            .kind(kindOf(event))
+            .reservationId(event.reservationId())
+            .roomId(event.roomId())
+            .checkIn(event.startDatetime() != null ? event.startDatetime().toLocalDate() : null)
+            .checkOut(event.endDatetime() != null ? event.endDatetime().toLocalDate() : null)
+            .status(event.status())
+            .occurredAt(occurredAt)
+            .build();
+    buffer[(int) (streamEvent.getId() % BUFFER_SIZE)] = streamEvent;
+    emitters.removeIf(emitter -> !send(emitter, toSse(streamEvent)));
+  }
+
+  /** Send what the dashboard missed; false when the connection is already gone. */
+  private boolean replay(SseEmitter emitter, String lastEventId) {
+    if (lastEventId == null || lastEventId.isBlank()) {
+      return true;
+    }
+    Long last = sequenceOf(lastEventId);
+    long oldest = Math.max(1, lastId - BUFFER_SIZE + 1);
+    if (last == null || last > lastId || last + 1 < oldest) {
+      // Unknown position: the buffer wrapped or the id comes from another boot
+      return send(emitter, SseEmitter.event().id(eventId(lastId)).name("reset").data(""));
+    }
+    for (long id = last + 1; id <= lastId; id++) {
+      if (!send(emitter, toSse(buffer[(int) (id % BUFFER_SIZE)]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** The sequence number of an event id of this boot, or null. */
+  private Long sequenceOf(String eventId) {
+    int separator = eventId.lastIndexOf('-');
+    if (separator <= 0 || !eventId.substring(0, separator).equals(epoch)) {
+      return null;
+    }
+    try {
+      return Long.valueOf(eventId.substring(separator + 1));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private String eventId(long sequence) {
+    return epoch + "-" + sequence;
+  }
+
+  private SseEmitter.SseEventBuilder toSse(ReservationStreamEventDto event) {
+    return SseEmitter.event()
+        .id(eventId(event.getId()))
+        .name(event.getKind().name().toLowerCase())
+        .data(event);
+  }
+
+  private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+    try {
+      emitter.send(event);
+      return true;
+    } catch (IOException | IllegalStateException e) {
+      emitter.completeWithError(e);
+      return false;
+    }
+  }
+
+  private void dispatch(Runnable task) {
+    try {
+      dispatcher.execute(task);
+    } catch (RejectedExecutionException e) {
+      logger.fine("Reservation event stream is shut down");
+    }
+  }
+
+  private static ReservationStreamEventDto.Kind kindOf(ReservationChangedEvent event) {
+    if (event.type() == ChangeType.DELETED || event.status() == ReservationStatus.CANCELLED) {
+      return ReservationStreamEventDto.Kind.CANCELLED;
+    }
+    return event.type() == ChangeType.CREATED
+        ? ReservationStreamEventDto.Kind.CREATED
+        : ReservationStreamEventDto.Kind.MODIFIED;
+  }
+}
@@ -0,0 +1,291 @@
+package master.master.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import master.master.repository.ReservationRepository;
+import master.master.web.rest.dto.ReservationHoldDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Short-lived checkout holds, kept in memory only.
+ *
+ * <p>A hold keeps a room aside for a few minutes while the guest pays. It blocks its nights in the
+ * {@link RoomAvailabilityIndex}, so every search skips the room, but writes nothing to the
+ * database: a {@code Reservation} is only created when the hold is confirmed. Expiry is driven by
+ * a hashed timing wheel with one slot per second, which makes scheduling and expiring a hold
+ * constant time whatever the number of live holds.
+ */
+@Service
+public class ReservationHoldService {
+
+  private static final Logger logger = Logger.getLogger(ReservationHoldService.class.getName());
+
+  public static final int DEFAULT_MINUTES = 10;
+  public static final int MAX_MINUTES = 30;
+  private static final int MAX_HOLDS = 10_000;
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final ReservationRepository reservationRepository;
+  private final RoomBookingLocks roomBookingLocks;
+  private final HotelWebsiteService hotelWebsiteService;
+  private final Clock clock;
+
+  private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+  private final AtomicLong holdIds = new AtomicLong();
+  private final TimingWheel wheel = new TimingWheel(MAX_MINUTES * 60 + 1);
+
+  @Autowired
+  public ReservationHoldService(
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      ReservationRepository reservationRepository,
+      RoomBookingLocks roomBookingLocks,
+      HotelWebsiteService hotelWebsiteService) {
+    this(
+        roomCatalogService,
+        availabilityIndex,
+        reservationRepository,
+        roomBookingLocks,
+        hotelWebsiteService,
+        Clock.systemDefaultZone());
+  }
+
+  ReservationHoldService(
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      ReservationRepository reservationRepository,
+      RoomBookingLocks roomBookingLocks,
+      HotelWebsiteService hotelWebsiteService,
+      Clock clock) {
+    this.clock = clock;
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.reservationRepository = reservationRepository;
+    this.roomBookingLocks = roomBookingLocks;
+    this.hotelWebsiteService = hotelWebsiteService;
+  }
+
+  /**
+   * Hold a room for the given nights.
+   *
+   * @return the hold, or empty if the room is not free on those nights
+   */
+  public Optional<ReservationHoldDto> hold(
+      Long roomId, Long userId, LocalDate checkIn, LocalDate checkOut, int minutes) {
+    if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+      throw new IllegalArgumentException("Check-out date must be after check-in date");
+    }
+    if (checkIn.isBefore(LocalDate.now(clock))) {
+      throw new IllegalArgumentException("Check-in date is in the past");
+    }
+    if (minutes < 1 || minutes > MAX_MINUTES) {
+      throw new IllegalArgumentException("A hold lasts between 1 and " + MAX_MINUTES + " minutes");
+    }
+    RoomSummaryDto room =
+        roomCatalogService.current().rooms().stream()
+            .filter(candidate -> candidate.getId().equals(roomId))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+    if (!room.getType().isHotelRoom() || !room.getStatus().isSellable()) {
+      return Optional.empty();
+    }
+    if (holds.size() >= MAX_HOLDS) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open holds");
+    }
+
+    return roomBookingLocks.withRoomLock(
+        roomId,
+        () -> {
+          if (!availabilityIndex.isAvailable(roomId, checkIn, checkOut)
+              || reservationRepository.existsOverlappingReservation(roomId, checkIn, checkOut)) {
+            return Optional.empty();
+          }
+          long now = clock.millis();
+          Hold hold =
+              new Hold(
+                  holdIds.incrementAndGet(),
+                  roomId,
+                  userId,
+                  checkIn,
+                  checkOut,
+                  now + minutes * 60_000L);
+          holds.put(hold.id(), hold);
+          availabilityIndex.hold(hold.id(), roomId, checkIn, checkOut);
+          schedule(hold);
+          return Optional.of(toDto(hold));
+        });
+  }
+
+  /**
+   * Turn a live hold into a reservation through {@link
+   * HotelWebsiteService#createReservationRequest}. If the booking fails, the hold stays in place
+   * until it expires.
+   */
+  public Map<String, Object> confirm(Long holdId, Long userId, boolean payNow) {
+    Hold hold = holds.get(holdId);
+    if (hold == null || hold.isExpired(clock.millis()) || !hold.userId().equals(userId)) {
+      return failure("Hold not found or expired");
+    }
+    try {
+      return roomBookingLocks.withRoomLock(
+          hold.roomId(),
+          () -> {
+            if (!holds.remove(holdId, hold)) {
+              return failure("Hold not found or expired");
+            }
+            // Lift the hold so that the booking's own availability check does not trip over it
+            availabilityIndex.releaseHold(holdId);
+            Map<String, Object> reservationData = new HashMap<>();
+            reservationData.put("roomId", hold.roomId());
+            reservationData.put("userId", hold.userId());
+            reservationData.put("checkIn", hold.checkIn());
+            reservationData.put("checkOut", hold.checkOut());
+            reservationData.put("payNow", payNow);
+            Map<String, Object> result =
+                hotelWebsiteService.createReservationRequest(reservationData);
+            if (!Boolean.TRUE.equals(result.get("success")) && !hold.isExpired(clock.millis())) {
+              holds.put(holdId, hold);
+              availabilityIndex.hold(holdId, hold.roomId(), hold.checkIn(), hold.checkOut());
+            }
+            return result;
+          });
+    } catch (ResponseStatusException e) {
+      return failure(e.getReason());
+    }
+  }
+
+  /** Give a held room back before the hold expires. */
+  public boolean release(Long holdId, Long userId) {
+    Hold hold = holds.get(holdId);
+    if (hold == null || !hold.userId().equals(userId) || !holds.remove(holdId, hold)) {
+      return false;
+    }
+    availabilityIndex.releaseHold(holdId);
+    return true;
+  }
+
+  /** Advance the wheel to the current second and drop the holds that expired. */
+  @Scheduled(fixedRate = 1000)
+  public void expireHolds() {
+    long now = clock.millis();
+    int expired = 0;
+    for (Long holdId : wheel.advance(now / 1000)) {
+      Hold hold = holds.get(holdId);
+      if (hold == null) {
+        continue;
+      }
+      if (!hold.isExpired(now)) {
+        // Drained early: the hold must stay on the wheel or it would never expire
+        schedule(hold);
+      } else if (holds.remove(holdId, hold)) {
+        availabilityIndex.releaseHold(holdId);
+        expired++;
+      }
+    }
+    if (expired > 0) {
+      logger.fine(expired + " reservation holds expired");
+    }
+  }
+
+  /** Due on the first second that starts at or after the expiry, so never drained early. */
+  private void schedule(Hold hold) {
+    wheel.schedule(hold.id(), Math.floorDiv(hold.expiresAtMillis() + 999, 1000));
+  }
+
+  private ReservationHoldDto toDto(Hold hold) {
+    return ReservationHoldDto.builder()
+        .holdId(hold.id())
+        .roomId(hold.roomId())
+        .userId(hold.userId())
+        .checkIn(hold.checkIn())
+        .checkOut(hold.checkOut())
+        .expiresAt(
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAtMillis()), clock.getZone()))
+        .build();
+  }
+
+  private static Map<String, Object> failure(String message) {
+    Map<String, Object> result = new HashMap<>();
+    result.put("success", false);
+    result.put("message", message);
+    return result;
+  }
+
+  private record Hold(
+      Long id,
+      Long roomId,
+      Long userId,
+      LocalDate checkIn,
+      LocalDate checkOut,
+      long expiresAtMillis) {
+
+    boolean isExpired(long nowMillis) {
+      return nowMillis >= expiresAtMillis;
+    }
+  }
+
+  /**
+   * Hashed timing wheel with one slot per second. A hold due at second {@code s} goes into slot
+   * {@code s mod slots}; the wheel is larger than the longest hold, so each slot only ever holds
+   * entries due on the current turn and advancing one second empties one slot.
+   */
+  private static final class TimingWheel {
+
+    private final List<List<long[]>> slots;
+    private long currentSecond = -1;
+
+    TimingWheel(int slotCount) {
+      slots = new ArrayList<>(slotCount);
+      for (int i = 0; i < slotCount; i++) {
+        slots.add(new ArrayList<>());
+      }
+    }
+
+    synchronized void schedule(long holdId, long dueSecond) {
+      // A slot already passed on this turn would only be visited again a full turn later
+      long second = currentSecond < 0 ? dueSecond : Math.max(dueSecond, currentSecond + 1);
+      slots.get(slot(second)).add(new long[] {holdId, second});
+    }
+
+    /** Ids of the entries due up to {@code nowSecond}. */
+    synchronized List<Long> advance(long nowSecond) {
+      List<Long> due = new ArrayList<>();
+      if (currentSecond < 0 || nowSecond - currentSecond > slots.size()) {
+        currentSecond = nowSecond - slots.size();
+      }
+      while (currentSecond < nowSecond) {
+        currentSecond++;
+        Iterator<long[]> entries = slots.get(slot(currentSecond)).iterator();
+        while (entries.hasNext()) {
+          long[] entry = entries.next();
+          if (entry[1] <= nowSecond) {
+            due.add(entry[0]);
+            entries.remove();
+          }
+        }
+      }
+      return due;
+    }
+
+    private int slot(long second) {
+      return (int) Math.floorMod(second, (long) slots.size());
+    }
+  }
+}
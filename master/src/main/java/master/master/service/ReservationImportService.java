@@ -0,0 +1,388 @@
+package master.master.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import master.master.domain.ReservationStatus;
+import master.master.event.ChangeType;
+import master.master.event.ReservationChangedEvent;
+import master.master.repository.ReservationRepository;
+import master.master.web.rest.dto.ReservationImportDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk import of reservations from CSV or NDJSON, e.g. a tour-operator allotment or a migration
+ * from another PMS.
+ *
+ * <p>The input is read one line at a time and never held in memory as a whole. Each row is checked
+ * against the room catalog, the known clients, the availability index and the rows already
+ * accepted from the same file, then queued. Queued rows are written with one JDBC batch insert and
+ * one transaction per {@value #BATCH_SIZE} rows: the identity key of {@code reservations} keeps
+ * Hibernate from batching, and a batch statement avoids building an entity per row. Rows are
+ * checked up front against what the database would refuse (negative amounts, past stays clashing
+ * with stored ones); a batch the database still rejects is retried row by row, so that one bad row
+ * never costs the good rows of its batch.
+ *
+ * <p>JDBC inserts bypass the entity listeners, so a {@link ReservationChangedEvent} is published
+ * for every committed row: the availability index, the lifecycle, the forecast and the dashboard
+ * stream see imported stays right away.
+ */
+@Service
+public class ReservationImportService {
+
+  private static final Logger logger = Logger.getLogger(ReservationImportService.class.getName());
+
+  private static final int BATCH_SIZE = 1_000;
+  private static final int MAX_REPORTED_ERRORS = 100;
+
+  private static final String INSERT_SQL =
+      "INSERT INTO reservations (id_user, id_room, start_datetime, end_datetime, "
+          + "reservation_status, total_amount, payment_method, is_paid, created_at) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final int[] INSERT_TYPES = {
+    Types.BIGINT,
+    Types.BIGINT,
+    Types.TIMESTAMP,
+    Types.TIMESTAMP,
+    Types.VARCHAR,
+    Types.NUMERIC,
+    Types.VARCHAR,
+    Types.BOOLEAN,
+    Types.TIMESTAMP
+  };
+
+  public enum Format {
+    CSV,
+    NDJSON
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final ReservationRepository reservationRepository;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public ReservationImportService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ObjectMapper objectMapper,
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      ReservationRepository reservationRepository,
+      ApplicationEventPublisher eventPublisher) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.reservationRepository = reservationRepository;
+    this.eventPublisher = eventPublisher;
+  }
+
+  public ReservationImportDto.Result importReservations(InputStream input, Format format)
+      throws IOException {
+    long started = System.nanoTime();
+    Import run = new Import();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      String[] header = null;
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (format == Format.CSV && header == null) {
+          header = line.trim().split("\\s*,\\s*");
+          continue;
+        }
+        run.read++;
+        try {
+          ReservationImportDto.Row row =
+              format == Format.CSV ? parseCsv(header, line) : parseJson(line);
+          run.accept(lineNumber, row);
+        } catch (IllegalArgumentException e) {
+          run.reject(lineNumber, e.getMessage());
+        }
+        if (run.pending.size() >= BATCH_SIZE) {
+          run.flush();
+        }
+      }
+      run.flush();
+    }
+
+    long elapsed = (System.nanoTime() - started) / 1_000_000;
+    logger.info(
+        "Reservation import: "
+            + run.imported
+            + " imported, "
+            + run.rejected
+            + " rejected in "
+            + elapsed
+            + " ms");
+    return ReservationImportDto.Result.builder()
+        .read(run.read)
+        .imported(run.imported)
+        .rejected(run.rejected)
+        .elapsedMillis(elapsed)
+        .errors(run.errors)
+        .build();
+  }
+
+  private ReservationImportDto.Row parseCsv(String[] header, String line) {
+    if (line.indexOf('"') >= 0) {
+      throw new IllegalArgumentException("quoted CSV values are not supported");
+    }
+    String[] values = line.split(",", -1);
+    if (values.length != header.length) {
+      throw new IllegalArgumentException(
+          "expected " + header.length + " values, found " + values.length);
+    }
+    Map<String, String> fields = new HashMap<>();
+    for (int i = 0; i < header.length; i++) {
+      String value = values[i].trim();
+      if (!value.isEmpty()) {
+        fields.put(header[i], value);
+      }
+    }
+    return objectMapper.convertValue(fields, ReservationImportDto.Row.class);
+  }
+
+  private ReservationImportDto.Row parseJson(String line) {
+    try {
+      return objectMapper.readValue(line, ReservationImportDto.Row.class);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage(), e);
+    }
+  }
+
+  /** State of one import: lookups, accepted nights per room, pending batch and counters. */
+  private final class Import {
+
+    private final Map<Long, RoomSummaryDto> roomsById;
+    private final Map<String, RoomSummaryDto> roomsByNumber;
+    private final Set<Long> clientIds;
+    private final Map<Long, BitSet> acceptedNights = new HashMap<>();
+    private final List<PendingRow> pending = new ArrayList<>(BATCH_SIZE);
+    private final List<String> errors = new ArrayList<>();
+    private int read;
+    private int imported;
+    private int rejected;
+
+    Import() {
+      List<RoomSummaryDto> rooms = roomCatalogService.current().rooms();
+      roomsById =
+          rooms.stream().collect(Collectors.toMap(RoomSummaryDto::getId, Function.identity()));
+      roomsByNumber =
+          rooms.stream()
+              .collect(Collectors.toMap(RoomSummaryDto::getNumber, Function.identity()));
+      clientIds =
+          new HashSet<>(jdbcTemplate.queryForList("SELECT id_user FROM clients", Long.class));
+    }
+
+    void accept(int lineNumber, ReservationImportDto.Row row) {
+      if (row.getUserId() == null || !clientIds.contains(row.getUserId())) {
+        throw new IllegalArgumentException("unknown client " + row.getUserId());
+      }
+      RoomSummaryDto room =
+          row.getRoomId() != null
+              ? roomsById.get(row.getRoomId())
+              : roomsByNumber.get(row.getRoomNumber());
+      if (room == null) {
+        throw new IllegalArgumentException("unknown room");
+      }
+      if (row.getCheckIn() == null
+          || row.getCheckOut() == null
+          || !row.getCheckOut().isAfter(row.getCheckIn())) {
+        throw new IllegalArgumentException("check-out date must be after check-in date");
+      }
+      ReservationStatus status =
+          row.getStatus() != null ? row.getStatus() : ReservationStatus.CONFIRMED;
+      long nights = ChronoUnit.DAYS.between(row.getCheckIn(), row.getCheckOut());
+      BigDecimal totalAmount =
+          row.getTotalAmount() != null
+              ? row.getTotalAmount()
+              : BigDecimal.valueOf(room.getPrice() != null ? room.getPrice() : 0.0)
+                  .multiply(BigDecimal.valueOf(nights));
+      if (totalAmount.signum() < 0) {
+        throw new IllegalArgumentException("total amount must not be negative");
+      }
+
+      boolean blocks = status.blocksInventory();
+      if (blocks) {
+        if (!availabilityIndex.isAvailable(room.getId(), row.getCheckIn(), row.getCheckOut())) {
+          throw new IllegalArgumentException("room " + room.getNumber() + " is not available");
+        }
+        // The index only knows the nights from today on; older ones are checked in the database
+        if (row.getCheckIn().isBefore(LocalDate.now())
+            && reservationRepository.existsOverlappingReservation(
+                room.getId(), row.getCheckIn(), row.getCheckOut())) {
+          throw new IllegalArgumentException(
+              "room " + room.getNumber() + " is already booked on these dates");
+        }
+        // Nights are numbered by epoch day so that past stays can be imported as well
+        BitSet nightsOfRoom = acceptedNights.computeIfAbsent(room.getId(), id -> new BitSet());
+        int from = (int) row.getCheckIn().toEpochDay();
+        int to = (int) row.getCheckOut().toEpochDay();
+        int clash = nightsOfRoom.nextSetBit(from);
+        if (clash >= 0 && clash < to) {
+          throw new IllegalArgumentException(
+              "overlaps another reservation of room " + room.getNumber() + " in this file");
+        }
+        nightsOfRoom.set(from, to);
+      }
+
+      LocalDateTime start = row.getCheckIn().atStartOfDay();
+      LocalDateTime end = row.getCheckOut().atTime(23, 59, 59);
+      pending.add(
+          new PendingRow(
+              lineNumber,
+              room.getId(),
+              start,
+              end,
+              status,
+              blocks,
+              new Object[] {
+                row.getUserId(),
+                room.getId(),
+                Timestamp.valueOf(start),
+                Timestamp.valueOf(end),
+                status.name(),
+                totalAmount,
+                row.getPaymentMethod() != null ? row.getPaymentMethod().name() : null,
+                Boolean.TRUE.equals(row.getPaid()),
+                Timestamp.valueOf(LocalDateTime.now())
+              }));
+    }
+
+    void reject(int lineNumber, String reason) {
+      rejected++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add("line " + lineNumber + ": " + reason);
+      }
+    }
+
+    void flush() {
+      if (pending.isEmpty()) {
+        return;
+      }
+      try {
+        committed(pending, insert(pending));
+      } catch (DataAccessException e) {
+        // One bad row fails its whole batch: insert the rows one by one to keep the good ones
+        for (PendingRow row : pending) {
+          try {
+            committed(List.of(row), insert(List.of(row)));
+          } catch (DataAccessException rowError) {
+            release(row);
+            reject(
+                row.lineNumber(),
+                "rejected by the database: " + rowError.getMostSpecificCause().getMessage());
+          }
+        }
+      }
+      pending.clear();
+    }
+
+    /** Insert the rows in one transaction and return their generated ids, in row order. */
+    private List<Long> insert(List<PendingRow> rows) {
+      return transactionTemplate.execute(
+          status ->
+              jdbcTemplate.execute(
+                  (ConnectionCallback<List<Long>>) connection -> insert(connection, rows)));
+    }
+
+    private List<Long> insert(Connection connection, List<PendingRow> rows)
+        throws SQLException {
+      try (PreparedStatement statement =
+          connection.prepareStatement(INSERT_SQL, new String[] {"id_reservation"})) {
+        for (PendingRow row : rows) {
+          for (int i = 0; i < INSERT_TYPES.length; i++) {
+            statement.setObject(i + 1, row.values()[i], INSERT_TYPES[i]);
+          }
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        List<Long> ids = new ArrayList<>(rows.size());
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          while (keys.next()) {
+            ids.add(keys.getLong(1));
+          }
+        }
+        return ids;
+      }
+    }
+
+    /** Count the committed rows and tell the in-memory services about them. */
+    private void committed(List<PendingRow> rows, List<Long> ids) {
+      imported += rows.size();
+      for (int i = 0; i < rows.size(); i++) {
+        PendingRow row = rows.get(i);
+        eventPublisher.publishEvent(
+            new ReservationChangedEvent(
+                ChangeType.CREATED,
+                i < ids.size() ? ids.get(i) : null,
+                row.roomId(),
+                row.start(),
+                row.end(),
+                row.status()));
+      }
+    }
+
+    /** Free the nights of a rejected row, so that later rows of the file may take them. */
+    private void release(PendingRow row) {
+      if (row.blocks()) {
+        acceptedNights
+            .get(row.roomId())
+            .clear(
+                (int) row.start().toLocalDate().toEpochDay(),
+                (int) row.end().toLocalDate().toEpochDay());
+      }
+    }
+  }
+
+  /** A checked row waiting for its batch insert. */
+  private record PendingRow(
+      int lineNumber,
+      Long roomId,
+      LocalDateTime start,
+      LocalDateTime end,
+      ReservationStatus status,
+      boolean blocks,
+      Object[] values) {}
+}
@@ -0,0 +1,259 @@
+package master.master.service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import master.master.domain.Reservation;
+import master.master.domain.ReservationStatus;
+import master.master.domain.Room;
+import master.master.domain.RoomStatus;
+import master.master.event.ChangeType;
+import master.master.event.ReservationChangedEvent;
+import master.master.repository.ReservationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Advances the persisted status of reservations, and the occupancy of their rooms, as check-in and
+ * check-out moments pass.
+ *
+ * <p>Open reservations sit in two time-ordered bucket maps, one keyed by check-in moment and one by
+ * check-out moment. Stays are stored from midnight to 23:59:59, so the moments are taken at the
+ * hotel's check-out time ({@code 11:00}) and check-in time ({@code 15:00}) instead: when one guest
+ * leaves the day the next one arrives, the room is cleaned before it becomes occupied again.
+ * Every minute the due buckets are drained and their reservations transitioned in one transaction:
+ *
+ * <ul>
+ *   <li>at check-in, a paid PENDING or CONFIRMED reservation becomes CHECKED_IN and its room
+ *       OCCUPIED;
+ *   <li>at check-out, a CHECKED_IN or paid reservation becomes COMPLETED and its room CLEANING, an
+ *       unpaid one becomes NO_SHOW.
+ * </ul>
+ *
+ * <p>Each status write publishes a {@link ReservationChangedEvent} through the entity listener,
+ * which also keeps the buckets in step with reservations written elsewhere.
+ */
+@Service
+public class ReservationLifecycleService {
+
+  private static final Logger logger =
+      Logger.getLogger(ReservationLifecycleService.class.getName());
+
+  public static final LocalTime CHECK_IN_TIME = LocalTime.of(15, 0);
+  public static final LocalTime CHECK_OUT_TIME = LocalTime.of(11, 0);
+
+  private final ReservationRepository reservationRepository;
+  private final RoomCatalogService roomCatalogService;
+  private final TransactionTemplate transactionTemplate;
+
+  private final NavigableMap<LocalDateTime, Set<Long>> checkIns = new TreeMap<>();
+  private final NavigableMap<LocalDateTime, Set<Long>> checkOuts = new TreeMap<>();
+  private final Map<Long, Moments> scheduled = new HashMap<>();
+
+  public ReservationLifecycleService(
+      ReservationRepository reservationRepository,
+      RoomCatalogService roomCatalogService,
+      PlatformTransactionManager transactionManager) {
+    this.reservationRepository = reservationRepository;
+    this.roomCatalogService = roomCatalogService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** Schedule every open reservation; those whose moments already passed run on the first tick. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    List<ReservationStatus> open =
+        Arrays.stream(ReservationStatus.values()).filter(ReservationStatus::isOpen).toList();
+    List<Reservation> reservations = reservationRepository.findByReservationStatusIn(open);
+    synchronized (this) {
+      reservations.forEach(
+          reservation ->
+              schedule(
+                  reservation.getId(),
+                  reservation.getReservationStatus(),
+                  reservation.getStartDatetime(),
+                  reservation.getEndDatetime()));
+    }
+    logger.info("Reservation lifecycle: " + reservations.size() + " open reservations scheduled");
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onReservationChanged(ReservationChangedEvent event) {
+    if (event.reservationId() == null) {
+      return;
+    }
+    unschedule(event.reservationId());
+    if (event.type() != ChangeType.DELETED && event.status() != null) {
+      schedule(event.reservationId(), event.status(), event.startDatetime(), event.endDatetime());
+    }
+  }
+
+  /** Transition the reservations whose check-in or check-out moment has passed. */
+  @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+  public void advance() {
+    LocalDateTime now = LocalDateTime.now();
+    Set<Long> dueCheckIns;
+    Set<Long> dueCheckOuts;
+    synchronized (this) {
+      dueCheckIns = drain(checkIns, now);
+      dueCheckOuts = drain(checkOuts, now);
+    }
+    if (dueCheckIns.isEmpty() && dueCheckOuts.isEmpty()) {
+      return;
+    }
+    Boolean roomsChanged;
+    try {
+      roomsChanged = transactionTemplate.execute(status -> transition(dueCheckIns, dueCheckOuts));
+    } catch (RuntimeException e) {
+      // Nothing was committed: put the due reservations back for the next tick
+      synchronized (this) {
+        restore(dueCheckIns, dueCheckOuts);
+      }
+      logger.log(Level.WARNING, "Reservation lifecycle: transitions failed, retrying next tick", e);
+      return;
+    }
+    if (Boolean.TRUE.equals(roomsChanged)) {
+      roomCatalogService.rebuild();
+    }
+  }
+
+  /** Apply the due transitions; returns whether any room status changed. */
+  private boolean transition(Set<Long> dueCheckIns, Set<Long> dueCheckOuts) {
+    Set<Long> ids = new HashSet<>(dueCheckIns);
+    ids.addAll(dueCheckOuts);
+    List<Reservation> reservations = new ArrayList<>(reservationRepository.findByIdIn(ids));
+    // Departures first, so that a room turned over on the same day ends up occupied
+    reservations.sort(
+        Comparator.comparing(
+            (Reservation reservation) -> !dueCheckOuts.contains(reservation.getId())));
+
+    int checkedIn = 0;
+    int completed = 0;
+    int noShows = 0;
+    boolean roomsChanged = false;
+    for (Reservation reservation : reservations) {
+      ReservationStatus status = reservation.getReservationStatus();
+      boolean paid = Boolean.TRUE.equals(reservation.getPaid());
+      Room room = reservation.getRoom();
+      if (dueCheckOuts.contains(reservation.getId())) {
+        if (status == ReservationStatus.CHECKED_IN || (paid && status.isOpen())) {
+          reservation.setReservationStatus(ReservationStatus.COMPLETED);
+          completed++;
+          if (room.getStatus() == RoomStatus.OCCUPIED) {
+            room.setStatus(RoomStatus.CLEANING);
+            roomsChanged = true;
+          }
+        } else if (status.isOpen()) {
+          reservation.setReservationStatus(ReservationStatus.NO_SHOW);
+          noShows++;
+        }
+      } else if (paid
+          && (status == ReservationStatus.PENDING || status == ReservationStatus.CONFIRMED)) {
+        reservation.setReservationStatus(ReservationStatus.CHECKED_IN);
+        checkedIn++;
+        if (room.getStatus() == RoomStatus.AVAILABLE
+            || room.getStatus() == RoomStatus.RESERVED
+            || room.getStatus() == RoomStatus.CLEANING) {
+          room.setStatus(RoomStatus.OCCUPIED);
+          roomsChanged = true;
+        }
+      }
+    }
+    logger.info(
+        "Reservation lifecycle: "
+            + checkedIn
+            + " checked in, "
+            + completed
+            + " completed, "
+            + noShows
+            + " no-shows");
+    return roomsChanged;
+  }
+
+  private void schedule(
+      Long id, ReservationStatus status, LocalDateTime checkIn, LocalDateTime checkOut) {
+    if (!status.isOpen() || checkIn == null || checkOut == null) {
+      return;
+    }
+    LocalDateTime arrival = checkIn.toLocalDate().atTime(CHECK_IN_TIME);
+    LocalDateTime departure = checkOut.toLocalDate().atTime(CHECK_OUT_TIME);
+    if (!departure.isAfter(arrival)) {
+      // A same-day stay still ends the next morning
+      departure = arrival.toLocalDate().plusDays(1).atTime(CHECK_OUT_TIME);
+    }
+    // A checked-in stay only has its departure left
+    if (status == ReservationStatus.CHECKED_IN) {
+      arrival = null;
+    }
+    if (arrival != null) {
+      checkIns.computeIfAbsent(arrival, moment -> new HashSet<>()).add(id);
+    }
+    checkOuts.computeIfAbsent(departure, moment -> new HashSet<>()).add(id);
+    scheduled.put(id, new Moments(arrival, departure));
+  }
+
+  private void unschedule(Long id) {
+    Moments moments = scheduled.remove(id);
+    if (moments == null) {
+      return;
+    }
+    if (moments.checkIn() != null) {
+      remove(checkIns, moments.checkIn(), id);
+    }
+    remove(checkOuts, moments.checkOut(), id);
+  }
+
+  private static void remove(
+      NavigableMap<LocalDateTime, Set<Long>> buckets, LocalDateTime at, Long id) {
+    Set<Long> bucket = buckets.get(at);
+    if (bucket != null && bucket.remove(id) && bucket.isEmpty()) {
+      buckets.remove(at);
+    }
+  }
+
+  /**
+   * Re-buckets drained reservations that are still scheduled. Those rescheduled or unscheduled by
+   * an event in the meantime already sit where they belong.
+   */
+  private void restore(Set<Long> dueCheckIns, Set<Long> dueCheckOuts) {
+    for (Long id : dueCheckIns) {
+      Moments moments = scheduled.get(id);
+      if (moments != null && moments.checkIn() != null) {
+        checkIns.computeIfAbsent(moments.checkIn(), moment -> new HashSet<>()).add(id);
+      }
+    }
+    for (Long id : dueCheckOuts) {
+      Moments moments = scheduled.get(id);
+      if (moments != null) {
+        checkOuts.computeIfAbsent(moments.checkOut(), moment -> new HashSet<>()).add(id);
+      }
+    }
+  }
+
+  private static Set<Long> drain(
+      NavigableMap<LocalDateTime, Set<Long>> buckets, LocalDateTime now) {
+    NavigableMap<LocalDateTime, Set<Long>> due = buckets.headMap(now, true);
+    Set<Long> ids = new HashSet<>();
+    due.values().forEach(ids::addAll);
+    due.clear();
+    return ids;
+  }
+
+  private record Moments(LocalDateTime checkIn, LocalDateTime checkOut) {}
+}
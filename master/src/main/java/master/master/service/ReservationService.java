@@ -2,12 +2,18 @@ package master.master.service;
 
 import java.util.List;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import master.master.domain.*;
 import master.master.mapper.ReservationMapper;
 import master.master.repository.ClientRepository;
 import master.master.repository.ReservationRepository;
 import master.master.repository.RoomRepository;
 import master.master.web.rest.dto.ReservationDto;
+import master.master.web.rest.dto.ReservationHistoryItemDto;
+import master.master.web.rest.dto.ReservationHistoryPageDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,20 +23,36 @@ import org.springframework.web.server.ResponseStatusException;
 @Transactional(readOnly = true)
 public class ReservationService {
 
+  private static final int MAX_HISTORY_PAGE_SIZE = 100;
+  // Keyset positions before and after every stored stay, used for first pages
+  private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+  private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+  public enum HistoryScope {
+    UPCOMING,
+    PAST
+  }
+
   private final ReservationRepository repo;
   private final ClientRepository clientRepo;
   private final RoomRepository roomRepo;
   private final ReservationMapper mapper;
+  private final RoomPricingService pricingService;
+  private final RoomAvailabilityIndex availabilityIndex;
 
   public ReservationService(
       ReservationRepository repo,
       ClientRepository clientRepo,
       RoomRepository roomRepo,
-      ReservationMapper mapper) {
+      ReservationMapper mapper,
+      RoomPricingService pricingService,
+      RoomAvailabilityIndex availabilityIndex) {
     this.repo = repo;
     this.clientRepo = clientRepo;
     this.roomRepo = roomRepo;
     this.mapper = mapper;
+    this.pricingService = pricingService;
+    this.availabilityIndex = availabilityIndex;
   }
 
   // This method creates a new reservation for a user.
@@ -46,18 +68,86 @@ public class ReservationService {
             .findById(dto.getRoomId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found"));
 
+    if (!dto.getReservationDateEnd().isAfter(dto.getReservationDateStart())) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "End date must be after start date");
+    }
+    // Same checks as the website: the index also holds checkout holds and unavailabilities
+    if (!availabilityIndex.isAvailable(
+            room.getId(), dto.getReservationDateStart(), dto.getReservationDateEnd())
+        || repo.existsOverlappingReservation(
+            room.getId(), dto.getReservationDateStart(), dto.getReservationDateEnd())) {
+      throw new ResponseStatusException(
+          HttpStatus.CONFLICT, "Room is not available for the selected dates");
+    }
+
     Reservation ur = mapper.toEntity(dto);
     ur.setClient(client);
     ur.setRoom(room);
     ur.setReservationStatus(ReservationStatus.PENDING);
     ur.setPaid(false);
-    ur.setTotalAmount(room.getBasePrice() != null ? room.getBasePrice() : BigDecimal.ZERO);
+    ur.setTotalAmount(
+        BigDecimal.valueOf(
+            pricingService.quote(
+                room.getId(),
+                room.getPrice(),
+                dto.getReservationDateStart(),
+                dto.getReservationDateEnd())));
 
-    return mapper.toDto(repo.save(ur));
+    try {
+      return mapper.toDto(repo.save(ur));
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent booking won the race between the overlap check and the insert
+      if (isStayOverlap(e)) {
+        throw new ResponseStatusException(
+            HttpStatus.CONFLICT, "Room is already booked for the selected dates");
+      }
+      throw e;
+    }
   }
 
   // This method retrieves all reservations made by a specific user.
   public List<ReservationDto.Info> findByUser(Long userId) {
     return repo.findByClientId(userId).stream().map(mapper::toDto).toList();
   }
+
+  // This method returns one keyset page of the reservation history of the client with this email.
+  // Upcoming stays (not yet checked out) come soonest first, past stays most recent first.
+  public ReservationHistoryPageDto findHistory(
+      String email, HistoryScope scope, String cursor, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime cursorStart = scope == HistoryScope.UPCOMING ? EARLIEST : LATEST;
+    long cursorId = scope == HistoryScope.UPCOMING ? 0L : Long.MAX_VALUE;
+    if (cursor != null && !cursor.isBlank()) {
+      int separator = cursor.lastIndexOf('_');
+      try {
+        cursorStart = LocalDateTime.parse(cursor.substring(0, separator));
+        cursorId = Long.parseLong(cursor.substring(separator + 1));
+      } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+      }
+    }
+
+    List<ReservationHistoryItemDto> rows =
+        scope == HistoryScope.UPCOMING
+            ? repo.findUpcomingHistory(email, now, cursorStart, cursorId, Limit.of(limit + 1))
+            : repo.findPastHistory(email, now, cursorStart, cursorId, Limit.of(limit + 1));
+    if (rows.size() <= limit) {
+      return ReservationHistoryPageDto.builder().reservations(rows).build();
+    }
+    List<ReservationHistoryItemDto> page = rows.subList(0, limit);
+    ReservationHistoryItemDto last = page.get(limit - 1);
+    return ReservationHistoryPageDto.builder()
+        .reservations(page)
+        .nextCursor(last.getStartDatetime() + "_" + last.getReservationId())
+        .build();
+  }
+
+  // This method tells whether an integrity violation comes from the no-double-booking constraint.
+  static boolean isStayOverlap(DataIntegrityViolationException e) {
+    Throwable cause = e.getMostSpecificCause();
+    return cause.getMessage() != null
+        && cause.getMessage().contains(ReservationRepository.STAY_OVERLAP_CONSTRAINT);
+  }
 }
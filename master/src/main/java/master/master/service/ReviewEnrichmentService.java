@@ -0,0 +1,202 @@
+package master.master.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import master.master.event.ChangeType;
+import master.master.event.ReviewChangedEvent;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Enriches review comments with the signals of {@link ReviewTextAnalyzer}, off the write path.
+ *
+ * <p>A committed review write only offers the review id to a bounded queue, which never blocks:
+ * when the queue is full the id is dropped. A small worker pool drains the queue in batches and
+ * reads the comments with one query per batch. It then writes the signals with one JDBC batch per
+ * batch. The write is skipped when the comment changed in the meantime.
+ *
+ * <p>Rows whose {@code enriched_at} is still NULL are swept back into the queue every minute. This
+ * covers dropped ids, failed batches, restarts and reviews written outside JPA. A database trigger
+ * clears {@code enriched_at} whenever a comment is edited.
+ */
+@Service
+public class ReviewEnrichmentService {
+
+  private static final Logger logger = Logger.getLogger(ReviewEnrichmentService.class.getName());
+
+  private static final int QUEUE_CAPACITY = 2048;
+  private static final int BATCH_SIZE = 64;
+  private static final int WORKERS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+  private static final String UPDATE_SQL =
+      "UPDATE rooms_reviews SET language = ?, sentiment_score = ?, is_profane = ?, "
+          + "keywords = ?, enriched_at = ? "
+          + "WHERE id_review = ? AND comment IS NOT DISTINCT FROM ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ReviewTextAnalyzer analyzer;
+
+  private final BlockingQueue<Long> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  // Ids waiting in the queue, so that a review is never queued twice
+  private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+  private final ExecutorService workers;
+
+  public ReviewEnrichmentService(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ReviewTextAnalyzer analyzer) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.analyzer = analyzer;
+    AtomicInteger threads = new AtomicInteger();
+    this.workers =
+        Executors.newFixedThreadPool(
+            WORKERS,
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "review-enrichment-" + threads.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PostConstruct
+  public void start() {
+    for (int i = 0; i < WORKERS; i++) {
+      workers.execute(this::work);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onReviewChanged(ReviewChangedEvent event) {
+    if (event.reviewId() != null && event.type() != ChangeType.DELETED) {
+      submit(event.reviewId());
+    }
+  }
+
+  /** Queue the reviews no worker has enriched yet, as far as the queue has room. */
+  @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+  public void sweep() {
+    int room = queue.remainingCapacity();
+    if (room == 0) {
+      return;
+    }
+    try {
+      List<Long> ids =
+          jdbcTemplate.queryForList(
+              "SELECT id_review FROM rooms_reviews WHERE enriched_at IS NULL "
+                  + "ORDER BY id_review LIMIT ?",
+              Long.class,
+              room);
+      ids.forEach(this::submit);
+    } catch (DataAccessException e) {
+      logger.log(Level.WARNING, "Could not look for reviews to enrich", e);
+    }
+  }
+
+  /** Never blocks; a dropped id is picked up by the next sweep. */
+  private void submit(Long reviewId) {
+    if (queued.add(reviewId) && !queue.offer(reviewId)) {
+      queued.remove(reviewId);
+      logger.fine("Review enrichment queue is full, review " + reviewId + " left to the sweep");
+    }
+  }
+
+  private void work() {
+    List<Long> batch = new ArrayList<>(BATCH_SIZE);
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      queue.drainTo(batch, BATCH_SIZE - 1);
+      // A review edited from now on is queued again
+      batch.forEach(queued::remove);
+      try {
+        enrich(batch);
+      } catch (RuntimeException e) {
+        logger.log(Level.WARNING, "Could not enrich " + batch.size() + " reviews", e);
+      }
+      batch.clear();
+    }
+  }
+
+  private void enrich(List<Long> reviewIds) {
+    String placeholders = String.join(", ", Collections.nCopies(reviewIds.size(), "?"));
+    List<EnrichedReview> rows = new ArrayList<>();
+    Timestamp enrichedAt = Timestamp.valueOf(LocalDateTime.now());
+    jdbcTemplate.query(
+        "SELECT id_review, comment FROM rooms_reviews WHERE id_review IN (" + placeholders + ")",
+        rs -> {
+          String comment = rs.getString("comment");
+          rows.add(new EnrichedReview(rs.getLong("id_review"), comment, analyzer.analyze(comment)));
+        },
+        reviewIds.toArray());
+    if (rows.isEmpty()) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(
+        status ->
+            jdbcTemplate.batchUpdate(
+                UPDATE_SQL,
+                new BatchPreparedStatementSetter() {
+                  @Override
+                  public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    EnrichedReview row = rows.get(i);
+                    ReviewTextAnalyzer.Analysis analysis = row.analysis();
+                    ps.setString(1, analysis.language());
+                    ps.setBigDecimal(2, analysis.sentimentScore());
+                    ps.setObject(3, analysis.profane(), Types.BOOLEAN);
+                    ps.setArray(
+                        4,
+                        analysis.keywords() == null
+                            ? null
+                            : ps.getConnection()
+                                .createArrayOf("text", analysis.keywords().toArray()));
+                    ps.setTimestamp(5, enrichedAt);
+                    ps.setLong(6, row.id());
+                    ps.setString(7, row.comment());
+                  }
+
+                  @Override
+                  public int getBatchSize() {
+                    return rows.size();
+                  }
+                }));
+  }
+
+  /** The comment the analysis was computed from, to skip the write if it was edited since. */
+  private record EnrichedReview(long id, String comment, ReviewTextAnalyzer.Analysis analysis) {}
+}
@@ -0,0 +1,163 @@
+package master.master.service;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import master.master.web.rest.dto.ReviewModerationItemDto;
+import master.master.web.rest.dto.ReviewModerationPageDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Moderation list of reviews, sorted and filtered on the signals of {@link
+ * ReviewEnrichmentService} so that staff do not have to read every comment.
+ *
+ * <p>Pages are keyset-paged on the sort key and the review id. The worst-first order only lists
+ * enriched reviews and is served by the partial index on {@code (sentiment_score, id_review)}.
+ * Keyword filters use the GIN index on {@code keywords}.
+ */
+@Service
+public class ReviewModerationService {
+
+  private static final int MAX_PAGE_SIZE = 50;
+
+  private static final String SELECT_SQL =
+      "SELECT r.id_review, r.rating, room.room_number, r.comment, r.created_at, r.is_verified, "
+          + "r.response_content IS NOT NULL AS answered, r.language, r.sentiment_score, "
+          + "r.is_profane, r.keywords "
+          + "FROM rooms_reviews r "
+          + "JOIN reservations res ON res.id_reservation = r.id_reservation "
+          + "JOIN rooms room ON room.id_room = res.id_room";
+
+  public enum Order {
+    WORST_FIRST,
+    NEWEST
+  }
+
+  /** Optional filters; null fields do not filter. */
+  public record Filter(
+      String language, Boolean profane, BigDecimal maxSentiment, Short maxRating, String keyword) {}
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ReviewModerationService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * One page of the reviews matching {@code filter}, in {@code order}.
+   *
+   * @param after cursor of the previous page, or null for the first page
+   */
+  public ReviewModerationPageDto list(Filter filter, Order order, String after, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    List<String> conditions = new ArrayList<>();
+    List<Object> params = new ArrayList<>();
+
+    if (filter.language() != null && !filter.language().isBlank()) {
+      conditions.add("r.language = ?");
+      params.add(filter.language().toLowerCase(Locale.ROOT));
+    }
+    if (filter.profane() != null) {
+      conditions.add("r.is_profane = ?");
+      params.add(filter.profane());
+    }
+    if (filter.maxSentiment() != null) {
+      conditions.add("r.sentiment_score <= ?");
+      params.add(filter.maxSentiment());
+    }
+    if (filter.maxRating() != null) {
+      conditions.add("r.rating <= ?");
+      params.add(filter.maxRating());
+    }
+    if (filter.keyword() != null && !filter.keyword().isBlank()) {
+      conditions.add("r.keywords @> ARRAY[?]::text[]");
+      params.add(filter.keyword().trim().toLowerCase(Locale.ROOT));
+    }
+
+    String[] cursor = parseCursor(after);
+    String orderBy;
+    if (order == Order.WORST_FIRST) {
+      conditions.add("r.sentiment_score IS NOT NULL");
+      if (cursor != null) {
+        conditions.add("(r.sentiment_score, r.id_review) > (?, ?)");
+        params.add(parse(cursor[0], BigDecimal::new, after));
+        params.add(parse(cursor[1], Long::valueOf, after));
+      }
+      orderBy = " ORDER BY r.sentiment_score, r.id_review";
+    } else {
+      if (cursor != null) {
+        conditions.add("(r.created_at, r.id_review) < (?, ?)");
+        params.add(parse(cursor[0], LocalDateTime::parse, after));
+        params.add(parse(cursor[1], Long::valueOf, after));
+      }
+      orderBy = " ORDER BY r.created_at DESC, r.id_review DESC";
+    }
+    String sql =
+        SELECT_SQL
+            + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+            + orderBy
+            + " LIMIT ?";
+    params.add(limit + 1);
+
+    List<ReviewModerationItemDto> rows =
+        jdbcTemplate.query(sql, (rs, rowNum) -> toItem(rs), params.toArray());
+    if (rows.size() <= limit) {
+      return ReviewModerationPageDto.builder().reviews(rows).build();
+    }
+    List<ReviewModerationItemDto> page = rows.subList(0, limit);
+    ReviewModerationItemDto last = page.get(limit - 1);
+    String sortKey =
+        order == Order.WORST_FIRST
+            ? last.getSentimentScore().toPlainString()
+            : last.getCreatedAt().toString();
+    return ReviewModerationPageDto.builder()
+        .reviews(page)
+        .nextCursor(sortKey + "_" + last.getId())
+        .build();
+  }
+
+  /** Splits "value_id" into its two parts, or null without cursor. */
+  private static String[] parseCursor(String after) {
+    if (after == null || after.isBlank()) {
+      return null;
+    }
+    int separator = after.lastIndexOf('_');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Invalid cursor: " + after);
+    }
+    return new String[] {after.substring(0, separator), after.substring(separator + 1)};
+  }
+
+  private static <T> T parse(String value, Function<String, T> parser, String after) {
+    try {
+      return parser.apply(value);
+    } catch (NumberFormatException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + after, e);
+    }
+  }
+
+  private static ReviewModerationItemDto toItem(ResultSet rs) throws SQLException {
+    Array keywords = rs.getArray("keywords");
+    return ReviewModerationItemDto.builder()
+        .id(rs.getLong("id_review"))
+        .rating(rs.getShort("rating"))
+        .roomNumber(rs.getString("room_number"))
+        .comment(rs.getString("comment"))
+        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+        .verified(rs.getBoolean("is_verified"))
+        .answered(rs.getBoolean("answered"))
+        .language(rs.getString("language"))
+        .sentimentScore(rs.getBigDecimal("sentiment_score"))
+        .profane(rs.getObject("is_profane", Boolean.class))
+        .keywords(keywords != null ? List.of((String[]) keywords.getArray()) : null)
+        .build();
+  }
+}
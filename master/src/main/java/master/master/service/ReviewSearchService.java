@@ -0,0 +1,147 @@
+package master.master.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import master.master.web.rest.dto.ReviewSearchHitDto;
+import master.master.web.rest.dto.ReviewSearchPageDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Full-text search over review comments, for staff triaging complaints.
+ *
+ * <p>Matches come from the GIN index on the generated {@code comment_tsv} column. Every word of
+ * the search text is matched as a prefix and all of them must appear. Results are ordered by
+ * {@code ts_rank_cd} relevance and paged by keyset on {@code (rank, id)}. Excerpts are built with
+ * {@code ts_headline} only for the rows of the returned page.
+ */
+@Service
+public class ReviewSearchService {
+
+  private static final int MAX_PAGE_SIZE = 50;
+  private static final int MAX_TERMS = 10;
+  private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+  // Control characters cannot appear in a review, so they mark the matches until the excerpt
+  // is HTML-escaped and they become <mark> tags
+  private static final String START_MARK = "\u0001";
+  private static final String STOP_MARK = "\u0002";
+  private static final String HEADLINE_OPTIONS =
+      "StartSel="
+          + START_MARK
+          + ", StopSel="
+          + STOP_MARK
+          + ", MaxWords=35, MinWords=15, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+  private static final String SEARCH_SQL =
+      "SELECT page.id_review, page.rating, page.room_number, page.created_at, page.is_verified, "
+          + "page.answered, page.rank, "
+          + "ts_headline('simple', page.comment, page.tsq, ?) AS snippet "
+          + "FROM (SELECT * FROM ("
+          + "SELECT r.id_review, r.rating, r.comment, r.created_at, r.is_verified, "
+          + "r.response_content IS NOT NULL AS answered, room.room_number, q.tsq, "
+          + "ts_rank_cd(r.comment_tsv, q.tsq)::float8 AS rank "
+          + "FROM rooms_reviews r "
+          + "CROSS JOIN to_tsquery('simple', ?) AS q(tsq) "
+          + "JOIN reservations res ON res.id_reservation = r.id_reservation "
+          + "JOIN rooms room ON room.id_room = res.id_room "
+          + "WHERE r.comment_tsv @@ q.tsq AND r.rating <= ?"
+          + ") hits "
+          + "WHERE hits.rank < ? OR (hits.rank = ? AND hits.id_review < ?) "
+          + "ORDER BY hits.rank DESC, hits.id_review DESC "
+          + "LIMIT ?) page "
+          + "ORDER BY page.rank DESC, page.id_review DESC";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public ReviewSearchService(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * One page of the reviews containing every word of {@code text} (as a prefix), most relevant
+   * first.
+   *
+   * @param maxRating only reviews rated at most this, or every rating when null
+   * @param after cursor of the previous page, or null for the first page
+   */
+  public ReviewSearchPageDto search(String text, Short maxRating, String after, int size) {
+    String query = toTsQuery(text);
+    if (query.isEmpty()) {
+      throw new IllegalArgumentException("Search text must contain at least one word");
+    }
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    double beforeRank = Double.MAX_VALUE;
+    long beforeId = Long.MAX_VALUE;
+    if (after != null && !after.isBlank()) {
+      int separator = after.lastIndexOf('_');
+      try {
+        beforeRank = Double.parseDouble(after.substring(0, separator));
+        beforeId = Long.parseLong(after.substring(separator + 1));
+      } catch (IndexOutOfBoundsException | NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + after, e);
+      }
+    }
+
+    List<ReviewSearchHitDto> rows =
+        jdbcTemplate.query(
+            SEARCH_SQL,
+            (rs, rowNum) -> toHit(rs),
+            HEADLINE_OPTIONS,
+            query,
+            maxRating != null ? maxRating : 5,
+            beforeRank,
+            beforeRank,
+            beforeId,
+            limit + 1);
+    if (rows.size() <= limit) {
+      return ReviewSearchPageDto.builder().hits(rows).build();
+    }
+    List<ReviewSearchHitDto> page = rows.subList(0, limit);
+    ReviewSearchHitDto last = page.get(limit - 1);
+    return ReviewSearchPageDto.builder()
+        .hits(page)
+        .nextCursor(last.getRank() + "_" + last.getId())
+        .build();
+  }
+
+  /** "Clim bruyante" becomes "clim:* & bruyante:*"; anything but letters and digits is dropped. */
+  static String toTsQuery(String text) {
+    if (text == null) {
+      return "";
+    }
+    Matcher words = WORD.matcher(text.toLowerCase(Locale.ROOT));
+    return words
+        .results()
+        .map(word -> word.group() + ":*")
+        .distinct()
+        .limit(MAX_TERMS)
+        .collect(Collectors.joining(" & "));
+  }
+
+  private static ReviewSearchHitDto toHit(ResultSet rs) throws SQLException {
+    String snippet = rs.getString("snippet");
+    return ReviewSearchHitDto.builder()
+        .id(rs.getLong("id_review"))
+        .rating(rs.getShort("rating"))
+        .roomNumber(rs.getString("room_number"))
+        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+        .verified(rs.getBoolean("is_verified"))
+        .answered(rs.getBoolean("answered"))
+        .rank(rs.getDouble("rank"))
+        .snippet(
+            snippet == null
+                ? null
+                : HtmlUtils.htmlEscape(snippet)
+                    .replace(START_MARK, "<mark>")
+                    .replace(STOP_MARK, "</mark>"))
+        .build();
+  }
+}
@@ -0,0 +1,383 @@
+package master.master.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import master.master.domain.RoomRatingStats;
+import master.master.domain.RoomType;
+import master.master.event.ChangeType;
+import master.master.event.ReservationChangedEvent;
+import master.master.event.ReviewChangedEvent;
+import master.master.repository.ReviewRepository;
+import master.master.repository.RoomRatingStatsRepository;
+import master.master.web.rest.dto.ReviewStatsOverviewDto;
+import master.master.web.rest.dto.RoomReviewStatsDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import master.master.web.rest.dto.TopRatedRoomDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory rating histograms per room, per room type and for the whole hotel, so dashboards
+ * never aggregate {@code rooms_reviews}.
+ *
+ * <p>The histograms are loaded once the application is ready and then kept up to date from {@link
+ * ReviewChangedEvent}, and from {@link ReservationChangedEvent} when a reviewed reservation moves
+ * to another room or is deleted. Every ten minutes the per-room histograms are compared with the
+ * trigger-maintained {@code room_rating_stats} table (one row per room), and everything is
+ * reloaded if they drifted, for instance after a write made outside JPA.
+ *
+ * <p>Rooms are also ranked per room type by their Bayesian average: their ratings plus {@value
+ * #PRIOR_REVIEWS} virtual reviews at the hotel mean, so that a room with two 5-star reviews does
+ * not outrank one with fifty 4.8 averages. Each type keeps its reviewed rooms in a tree ordered by
+ * that score, and a review event repositions its room in O(log n). The ranking is rebuilt when the
+ * hotel mean it was computed with drifted by more than {@value #PRIOR_DRIFT} star.
+ */
+@Service
+public class ReviewStatsService {
+
+  private static final Logger logger = Logger.getLogger(ReviewStatsService.class.getName());
+
+  private static final int STARS = 5;
+  static final int PRIOR_REVIEWS = 5;
+  static final double PRIOR_DRIFT = 0.01;
+
+  private static final Comparator<RankedRoom> RANKING =
+      Comparator.comparingDouble(RankedRoom::score)
+          .reversed()
+          .thenComparing(Comparator.comparingInt(RankedRoom::reviews).reversed())
+          .thenComparingLong(RankedRoom::roomId);
+
+  private final ReviewRepository reviewRepository;
+  private final RoomRatingStatsRepository ratingStatsRepository;
+  private final RoomCatalogService roomCatalogService;
+
+  private final Map<Long, Review> reviews = new HashMap<>();
+  private final Map<Long, Long> reviewByReservation = new HashMap<>();
+  private final Map<Long, int[]> byRoom = new HashMap<>();
+  private final int[] hotel = new int[STARS];
+  private int verified;
+
+  // Derived from byRoom for the catalog version the room types were read from
+  private long typesVersion = -1;
+  private Map<Long, RoomType> roomTypes = Map.of();
+  private Map<Long, String> roomNumbers = Map.of();
+  private final int[][] byType = new int[RoomType.values().length][STARS];
+
+  // Bayesian ranking per type, scored against priorMean
+  private double priorMean;
+  private final Map<Long, RankedRoom> rankedRooms = new HashMap<>();
+  private final Map<RoomType, TreeSet<RankedRoom>> ranking = new EnumMap<>(RoomType.class);
+
+  public ReviewStatsService(
+      ReviewRepository reviewRepository,
+      RoomRatingStatsRepository ratingStatsRepository,
+      RoomCatalogService roomCatalogService) {
+    this.reviewRepository = reviewRepository;
+    this.ratingStatsRepository = ratingStatsRepository;
+    this.roomCatalogService = roomCatalogService;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    List<Object[]> rows = reviewRepository.findAllRatings();
+    synchronized (this) {
+      reviews.clear();
+      reviewByReservation.clear();
+      byRoom.clear();
+      Arrays.fill(hotel, 0);
+      verified = 0;
+      typesVersion = -1;
+      for (Object[] row : rows) {
+        add(
+            new Review(
+                (Long) row[0],
+                (Long) row[1],
+                (Long) row[2],
+                ((Number) row[3]).intValue(),
+                Boolean.TRUE.equals(row[4])));
+      }
+    }
+    logger.info("Review statistics loaded from " + rows.size() + " reviews");
+  }
+
+  /** Reload everything if a room's histogram no longer matches the database aggregate. */
+  @Scheduled(initialDelay = 600000, fixedDelay = 600000)
+  public void reconcile() {
+    List<RoomRatingStats> rows = ratingStatsRepository.findAll();
+    Optional<Long> drifted;
+    synchronized (this) {
+      Map<Long, int[]> expected =
+          rows.stream()
+              .filter(row -> row.getRatingCount() != 0)
+              .collect(
+                  Collectors.toMap(
+                      RoomRatingStats::getRoomId, RoomRatingStats::getRatingDistribution));
+      drifted =
+          Stream.concat(byRoom.keySet().stream(), expected.keySet().stream())
+              .filter(roomId -> !Arrays.equals(byRoom.get(roomId), expected.get(roomId)))
+              .findFirst();
+    }
+    if (drifted.isPresent()) {
+      logger.warning(
+          "Review statistics of room " + drifted.get() + " drifted from the database, reloading");
+      load();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onReviewChanged(ReviewChangedEvent event) {
+    if (event.reviewId() == null) {
+      return;
+    }
+    remove(event.reviewId());
+    if (event.exists()) {
+      add(
+          new Review(
+              event.reviewId(),
+              event.reservationId(),
+              event.roomId(),
+              event.rating(),
+              event.verified()));
+    }
+  }
+
+  /** A review follows its reservation to another room, and goes when it is deleted. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onReservationChanged(ReservationChangedEvent event) {
+    Long reviewId = reviewByReservation.get(event.reservationId());
+    if (reviewId == null) {
+      return;
+    }
+    Review review = remove(reviewId);
+    if (event.type() != ChangeType.DELETED) {
+      add(event.roomId() != null ? review.movedTo(event.roomId()) : review);
+    }
+  }
+
+  public synchronized ReviewStatsOverviewDto overview() {
+    refreshTypes();
+    List<ReviewStatsOverviewDto.TypeStats> types = new ArrayList<>();
+    for (RoomType type : RoomType.values()) {
+      int[] counts = byType[type.ordinal()];
+      if (total(counts) > 0) {
+        types.add(
+            ReviewStatsOverviewDto.TypeStats.builder()
+                .type(type)
+                .totalReviews(total(counts))
+                .averageRating(average(counts))
+                .ratingDistribution(counts.clone())
+                .build());
+      }
+    }
+    return ReviewStatsOverviewDto.builder()
+        .totalReviews(total(hotel))
+        .verifiedReviews(verified)
+        .averageRating(average(hotel))
+        .ratingDistribution(hotel.clone())
+        .types(types)
+        .build();
+  }
+
+  public synchronized RoomReviewStatsDto forRoom(Long roomId) {
+    int[] counts = byRoom.getOrDefault(roomId, new int[STARS]);
+    return RoomReviewStatsDto.builder()
+        .roomId(roomId)
+        .totalReviews(total(counts))
+        .averageRating(average(counts))
+        .ratingDistribution(counts.clone())
+        .build();
+  }
+
+  /**
+   * Best Bayesian average first, among the rooms of {@code type}, or of every hotel room type when
+   * {@code type} is null.
+   */
+  public synchronized List<TopRatedRoomDto> topRated(RoomType type, int limit) {
+    refreshRanking();
+    Stream<RankedRoom> rooms =
+        type != null
+            ? ranking.getOrDefault(type, new TreeSet<>(RANKING)).stream()
+            : ranking.entrySet().stream()
+                .filter(entry -> entry.getKey().isHotelRoom())
+                .flatMap(entry -> entry.getValue().stream().limit(Math.max(0, limit)))
+                .sorted(RANKING);
+    return rooms.limit(Math.max(0, limit)).map(this::toTopRated).toList();
+  }
+
+  /** The {@code limit} best rooms of every room type that has reviews. */
+  public synchronized Map<RoomType, List<TopRatedRoomDto>> topRatedByType(int limit) {
+    refreshRanking();
+    Map<RoomType, List<TopRatedRoomDto>> byTypes = new EnumMap<>(RoomType.class);
+    ranking.forEach(
+        (type, rooms) -> {
+          if (!rooms.isEmpty()) {
+            byTypes.put(
+                type, rooms.stream().limit(Math.max(0, limit)).map(this::toTopRated).toList());
+          }
+        });
+    return byTypes;
+  }
+
+  /** Most reviews first. */
+  public synchronized List<TopRatedRoomDto> mostReviewed(int limit) {
+    refreshRanking();
+    return rankedRooms.values().stream()
+        .sorted(Comparator.comparingInt(RankedRoom::reviews).reversed().thenComparing(RANKING))
+        .limit(Math.max(0, limit))
+        .map(this::toTopRated)
+        .toList();
+  }
+
+  private TopRatedRoomDto toTopRated(RankedRoom room) {
+    int[] counts = byRoom.get(room.roomId());
+    return TopRatedRoomDto.builder()
+        .roomId(room.roomId())
+        .roomName("Room " + roomNumbers.getOrDefault(room.roomId(), Long.toString(room.roomId())))
+        .type(room.type())
+        .averageRating(average(counts))
+        .score(room.score())
+        .reviewCount(room.reviews())
+        .build();
+  }
+
+  private void add(Review review) {
+    if (review.rating() < 1 || review.rating() > STARS) {
+      return;
+    }
+    reviews.put(review.id(), review);
+    if (review.reservationId() != null) {
+      reviewByReservation.put(review.reservationId(), review.id());
+    }
+    apply(review, 1);
+  }
+
+  private Review remove(Long reviewId) {
+    Review review = reviews.remove(reviewId);
+    if (review != null) {
+      reviewByReservation.remove(review.reservationId());
+      apply(review, -1);
+    }
+    return review;
+  }
+
+  private void apply(Review review, int delta) {
+    int star = review.rating() - 1;
+    int[] room = byRoom.computeIfAbsent(review.roomId(), id -> new int[STARS]);
+    room[star] += delta;
+    if (total(room) == 0) {
+      byRoom.remove(review.roomId());
+    }
+    hotel[star] += delta;
+    if (review.verified()) {
+      verified += delta;
+    }
+    RoomType type = roomTypes.get(review.roomId());
+    if (type != null && typesVersion >= 0) {
+      byType[type.ordinal()][star] += delta;
+      rank(review.roomId());
+    }
+  }
+
+  /** Move a room to its new place in the ranking of its type, in O(log n). */
+  private void rank(Long roomId) {
+    RankedRoom previous = rankedRooms.remove(roomId);
+    if (previous != null) {
+      ranking.get(previous.type()).remove(previous);
+    }
+    RoomType type = roomTypes.get(roomId);
+    int[] counts = byRoom.get(roomId);
+    if (type == null || counts == null) {
+      return;
+    }
+    int reviews = total(counts);
+    double sum = average(counts) * reviews;
+    RankedRoom room =
+        new RankedRoom(
+            roomId, type, (PRIOR_REVIEWS * priorMean + sum) / (PRIOR_REVIEWS + reviews), reviews);
+    rankedRooms.put(roomId, room);
+    ranking.computeIfAbsent(type, t -> new TreeSet<>(RANKING)).add(room);
+  }
+
+  /** Re-score every room when the catalog changed or the hotel mean moved. */
+  private void refreshRanking() {
+    refreshTypes();
+    if (Math.abs(average(hotel) - priorMean) > PRIOR_DRIFT) {
+      rebuildRanking();
+    }
+  }
+
+  private void rebuildRanking() {
+    priorMean = average(hotel);
+    rankedRooms.clear();
+    ranking.clear();
+    byRoom.keySet().forEach(this::rank);
+  }
+
+  /** Regroup the room histograms by type when the catalog (and so maybe a room type) changed. */
+  private void refreshTypes() {
+    RoomCatalogService.Snapshot catalog = roomCatalogService.current();
+    if (catalog.version() == typesVersion) {
+      return;
+    }
+    roomTypes =
+        catalog.rooms().stream()
+            .collect(Collectors.toMap(RoomSummaryDto::getId, RoomSummaryDto::getType));
+    roomNumbers =
+        catalog.rooms().stream()
+            .collect(Collectors.toMap(RoomSummaryDto::getId, RoomSummaryDto::getNumber));
+    for (int[] counts : byType) {
+      Arrays.fill(counts, 0);
+    }
+    byRoom.forEach(
+        (roomId, counts) -> {
+          RoomType type = roomTypes.get(roomId);
+          if (type != null) {
+            for (int star = 0; star < STARS; star++) {
+              byType[type.ordinal()][star] += counts[star];
+            }
+          }
+        });
+    typesVersion = catalog.version();
+    rebuildRanking();
+  }
+
+  private static int total(int[] counts) {
+    int total = 0;
+    for (int count : counts) {
+      total += count;
+    }
+    return total;
+  }
+
+  private static double average(int[] counts) {
+    int total = 0;
+    int sum = 0;
+    for (int star = 0; star < STARS; star++) {
+      total += counts[star];
+      sum += counts[star] * (star + 1);
+    }
+    return total == 0 ? 0.0 : (double) sum / total;
+  }
+
+  private record RankedRoom(long roomId, RoomType type, double score, int reviews) {}
+
+  private record Review(Long id, Long reservationId, Long roomId, int rating, boolean verified) {
+
+    Review movedTo(Long otherRoomId) {
+      return new Review(id, reservationId, otherRoomId, rating, verified);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+package master.master.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local, dictionary-based analysis of a review comment: language, sentiment, profanity and
+ * keywords. Nothing leaves the process, and a comment is analyzed in microseconds.
+ *
+ * <p>The language is the one whose common words appear most often (English, French, Spanish or
+ * German). The sentiment is the sum of the lexicon weights of the words, flipped after a negation
+ * and boosted after an intensifier, then squashed into [-1, 1]. The lexicons cover English and
+ * French, the languages most guests write in.
+ */
+@Component
+public class ReviewTextAnalyzer {
+
+  private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+  private static final int MAX_KEYWORDS = 5;
+  private static final int MIN_KEYWORD_LENGTH = 4;
+  private static final int NEGATION_WINDOW = 3;
+  private static final double NEGATION_FACTOR = -0.75;
+  private static final double INTENSIFIER_FACTOR = 1.5;
+  // The larger, the more words it takes to get close to -1 or 1
+  private static final double SQUASH_ALPHA = 15;
+
+  private static final Map<String, Set<String>> STOP_WORDS =
+      Map.of(
+          "en",
+          Set.of(
+              "the", "and", "is", "was", "were", "it", "to", "of", "a", "in", "for", "with",
+              "this", "that", "we", "our", "my", "but", "they", "had", "have", "at", "on", "you",
+              "be", "are", "there", "would", "from", "very", "not", "all", "i", "an", "as"),
+          "fr",
+          Set.of(
+              "le", "la", "les", "et", "est", "était", "un", "une", "des", "du", "de", "nous",
+              "notre", "mais", "pour", "avec", "dans", "ce", "cette", "il", "elle", "je", "très",
+              "pas", "sur", "au", "aux", "qui", "que", "on", "tout", "avons", "été", "y", "en"),
+          "es",
+          Set.of(
+              "el", "los", "las", "y", "es", "fue", "muy", "pero", "con", "para", "una", "que",
+              "del", "nos", "nuestra", "estaba", "habitación", "por", "lo", "todo", "un", "se",
+              "al", "mi"),
+          "de",
+          Set.of(
+              "der", "die", "das", "und", "ist", "war", "sehr", "nicht", "mit", "für", "ein",
+              "eine", "wir", "aber", "ich", "es", "zu", "auf", "im", "den", "dem", "zimmer",
+              "hatten", "auch", "sich", "von"));
+
+  private static final Map<String, Integer> LEXICON = new HashMap<>();
+
+  static {
+    // English
+    weigh(3, "excellent", "amazing", "wonderful", "perfect", "lovely", "beautiful", "love");
+    weigh(3, "loved", "delicious", "best", "outstanding", "fantastic", "superb", "awesome");
+    weigh(2, "good", "nice", "clean", "comfortable", "friendly", "helpful", "quiet");
+    weigh(2, "recommend", "enjoyed", "spacious", "pleasant", "great", "cozy", "welcoming");
+    weigh(1, "fine", "ok", "okay", "decent", "convenient");
+    weigh(-1, "cold", "slow", "expensive", "small", "tired", "dated");
+    weigh(-2, "bad", "noisy", "loud", "broken", "smell", "smelly", "poor", "uncomfortable");
+    weigh(-2, "disappointing", "disappointed", "unhelpful", "stained", "leak", "overpriced");
+    weigh(-3, "terrible", "awful", "horrible", "dirty", "rude", "worst", "mold", "bugs");
+    weigh(-3, "disgusting", "filthy", "nightmare", "cockroaches", "unacceptable");
+    // French
+    weigh(3, "parfait", "parfaite", "magnifique", "génial", "géniale", "délicieux");
+    weigh(3, "exceptionnel", "exceptionnelle", "merveilleux", "superbe");
+    weigh(2, "bon", "bonne", "propre", "agréable", "calme", "confortable", "accueillant");
+    weigh(2, "accueillante", "recommande", "sympathique", "chaleureux", "spacieux", "super");
+    weigh(1, "bien", "correct", "correcte", "pratique");
+    weigh(-1, "froid", "froide", "lent", "lente", "cher", "chère", "vieillot");
+    weigh(-2, "bruyant", "bruyante", "mauvais", "mauvaise", "décevant", "décevante", "déçu");
+    weigh(-2, "déçus", "déçue", "cassé", "cassée", "odeur", "désagréable", "inconfortable");
+    weigh(-3, "sale", "sales", "horrible", "impoli", "impolie", "pire", "nul", "nulle");
+    weigh(-3, "dégoûtant", "inadmissible", "cafards", "moisissure");
+  }
+
+  private static final Set<String> NEGATIONS =
+      Set.of(
+          "not", "no", "never", "nothing", "without", "isn", "wasn", "don", "didn", "doesn",
+          "aren", "weren", "couldn", "pas", "jamais", "aucun", "aucune", "sans", "rien", "ni");
+
+  private static final Set<String> INTENSIFIERS =
+      Set.of(
+          "very", "really", "extremely", "so", "too", "absolutely", "totally", "très",
+          "vraiment", "trop", "tellement", "extrêmement", "totalement");
+
+  private static final Set<String> PROFANITIES =
+      Set.of(
+          "fuck", "fucking", "fucked", "shit", "shitty", "crap", "bastard", "bitch", "asshole",
+          "merde", "putain", "connard", "connasse", "salope", "enculé", "bordel", "mierda",
+          "scheiße", "scheisse");
+
+  // Words every review uses, worthless as keywords
+  private static final Set<String> GENERIC_WORDS =
+      Set.of(
+          "hotel", "hôtel", "room", "rooms", "chambre", "chambres", "stay", "stayed", "séjour",
+          "night", "nights", "nuit", "nuits", "overlook", "also", "just", "really", "which",
+          "when", "what", "here", "there", "their", "them", "been", "could", "will", "more",
+          "avait", "était", "sont", "plus", "vraiment", "comme", "aussi", "très", "tout", "tous",
+          "nous", "avons", "cette", "mais", "pour", "avec", "dans");
+
+  /** Signals of one comment; every field is null for a comment without words. */
+  public record Analysis(
+      String language, BigDecimal sentimentScore, Boolean profane, List<String> keywords) {}
+
+  public Analysis analyze(String comment) {
+    List<String> words = words(comment);
+    if (words.isEmpty()) {
+      return new Analysis(null, null, null, null);
+    }
+    return new Analysis(
+        languageOf(words),
+        sentimentOf(words),
+        words.stream().anyMatch(PROFANITIES::contains),
+        keywordsOf(words));
+  }
+
+  static List<String> words(String comment) {
+    if (comment == null) {
+      return List.of();
+    }
+    Matcher matcher = WORD.matcher(comment.toLowerCase(Locale.ROOT));
+    List<String> words = new ArrayList<>();
+    while (matcher.find()) {
+      words.add(matcher.group());
+    }
+    return words;
+  }
+
+  /** The language with the most common-word hits, or null when none clearly stands out. */
+  static String languageOf(List<String> words) {
+    String best = null;
+    int bestHits = 0;
+    int runnerUpHits = 0;
+    for (Map.Entry<String, Set<String>> language : STOP_WORDS.entrySet()) {
+      int hits = 0;
+      for (String word : words) {
+        if (language.getValue().contains(word)) {
+          hits++;
+        }
+      }
+      if (hits > bestHits) {
+        runnerUpHits = bestHits;
+        bestHits = hits;
+        best = language.getKey();
+      } else if (hits > runnerUpHits) {
+        runnerUpHits = hits;
+      }
+    }
+    return bestHits > runnerUpHits ? best : null;
+  }
+
+  static BigDecimal sentimentOf(List<String> words) {
+    double sum = 0;
+    int negatedUntil = -1;
+    boolean intensified = false;
+    for (int i = 0; i < words.size(); i++) {
+      String word = words.get(i);
+      if (NEGATIONS.contains(word)) {
+        negatedUntil = i + NEGATION_WINDOW;
+        continue;
+      }
+      if (INTENSIFIERS.contains(word)) {
+        intensified = true;
+        continue;
+      }
+      Integer weight = LEXICON.get(word);
+      if (weight != null) {
+        double score = weight;
+        if (intensified) {
+          score *= INTENSIFIER_FACTOR;
+        }
+        if (i <= negatedUntil) {
+          score *= NEGATION_FACTOR;
+          negatedUntil = -1; // A negation flips one sentiment word only
+        }
+        sum += score;
+      }
+      intensified = false;
+    }
+    double squashed = sum / Math.sqrt(sum * sum + SQUASH_ALPHA);
+    return BigDecimal.valueOf(squashed).setScale(3, RoundingMode.HALF_UP);
+  }
+
+  /** The most frequent meaningful words, ties broken by first appearance. */
+  static List<String> keywordsOf(List<String> words) {
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    for (String word : words) {
+      if (isKeyword(word)) {
+        counts.merge(word, 1, Integer::sum);
+      }
+    }
+    return counts.entrySet().stream()
+        .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+        .limit(MAX_KEYWORDS)
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  private static boolean isKeyword(String word) {
+    if (word.length() < MIN_KEYWORD_LENGTH
+        || GENERIC_WORDS.contains(word)
+        || NEGATIONS.contains(word)
+        || INTENSIFIERS.contains(word)
+        || PROFANITIES.contains(word)
+        || word.chars().allMatch(Character::isDigit)) {
+      return false;
+    }
+    return STOP_WORDS.values().stream().noneMatch(stopWords -> stopWords.contains(word));
+  }
+
+  private static void weigh(int weight, String... words) {
+    for (String word : words) {
+      LEXICON.put(word, weight);
+    }
+  }
+}
@@ -0,0 +1,436 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import master.master.domain.Reservation;
+import master.master.domain.ReservationStatus;
+import master.master.domain.RoomType;
+import master.master.repository.ReservationRepository;
+import master.master.repository.RoomRepository;
+import master.master.web.rest.dto.RoomAssignmentDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reassigns future reservations between rooms of the same type so that fewer unsellable gaps are
+ * left between stays.
+ *
+ * <p>Over the next {@value #HORIZON_DAYS} nights, every room of a type starts with its fixed blocks
+ * (unavailabilities, holds, and reservations that cannot move) as a day bitmap. The movable
+ * reservations are then placed in check-in order, each on the room where it fits best: first
+ * without leaving a free run shorter than {@value #MIN_SELLABLE_GAP} nights, then as close as
+ * possible to the previous stay, then in its current room. If a reservation fits in no room, the
+ * type keeps its current assignment.
+ *
+ * <p>Reservations that are locked to their room, already started, or end beyond the horizon stay
+ * put. Room types are planned in parallel. A type's plan is applied in one transaction that
+ * defers the stay overlap constraint, so reservations can swap rooms, and only if it leaves fewer
+ * orphan nights than the current assignment. It holds the booking locks of every room it touches
+ * and first checks that the target nights are still free in the availability index, holds
+ * included.
+ */
+@Service
+public class RoomAssignmentOptimizer {
+
+  private static final Logger logger = Logger.getLogger(RoomAssignmentOptimizer.class.getName());
+
+  public static final int HORIZON_DAYS = 90;
+  /** Free runs shorter than this between two blocked nights cannot be sold. */
+  public static final int MIN_SELLABLE_GAP = 2;
+
+  private final ReservationRepository reservationRepository;
+  private final RoomRepository roomRepository;
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomBookingLocks roomBookingLocks;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public RoomAssignmentOptimizer(
+      ReservationRepository reservationRepository,
+      RoomRepository roomRepository,
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      RoomBookingLocks roomBookingLocks,
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager) {
+    this.reservationRepository = reservationRepository;
+    this.roomRepository = roomRepository;
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.roomBookingLocks = roomBookingLocks;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  @Scheduled(cron = "0 30 3 * * *")
+  public void optimizeNightly() {
+    RoomAssignmentDto.Report report = optimize(false);
+    logger.info(
+        "Room assignment optimized: "
+            + report.getMoved()
+            + " reservations moved, "
+            + report.getRecoveredRoomNights()
+            + " room-nights recovered in "
+            + report.getElapsedMillis()
+            + " ms");
+  }
+
+  /** Plan every hotel room type and, unless {@code dryRun}, apply the plans that help. */
+  public synchronized RoomAssignmentDto.Report optimize(boolean dryRun) {
+    long started = System.nanoTime();
+    LocalDate today = LocalDate.now();
+
+    Map<RoomType, List<RoomSummaryDto>> roomsByType =
+        roomCatalogService.current().rooms().stream()
+            .filter(room -> room.getType().isHotelRoom() && room.getStatus().isSellable())
+            .sorted(Comparator.comparing(RoomSummaryDto::getNumber))
+            .collect(Collectors.groupingBy(RoomSummaryDto::getType));
+    Map<Long, RoomType> roomTypes = new HashMap<>();
+    roomsByType.forEach((type, rooms) -> rooms.forEach(room -> roomTypes.put(room.getId(), type)));
+
+    Map<RoomType, List<Stay>> staysByType = new HashMap<>();
+    List<ReservationStatus> movableStatuses =
+        List.of(ReservationStatus.PENDING, ReservationStatus.CONFIRMED);
+    for (Reservation reservation :
+        reservationRepository.findWithRoomByEndDatetimeAfterAndReservationStatusIn(
+            today.atStartOfDay(), movableStatuses)) {
+      RoomType type = roomTypes.get(reservation.getRoom().getId());
+      Stay stay = stay(reservation, today);
+      if (type != null && stay != null && !Boolean.TRUE.equals(reservation.getRoomLocked())) {
+        staysByType.computeIfAbsent(type, key -> new ArrayList<>()).add(stay);
+      }
+    }
+
+    List<Plan> plans =
+        roomsByType.entrySet().parallelStream()
+            .map(
+                entry ->
+                    plan(
+                        entry.getKey(),
+                        entry.getValue(),
+                        staysByType.getOrDefault(entry.getKey(), List.of()),
+                        today))
+            .sorted(Comparator.comparing(Plan::type))
+            .toList();
+
+    List<RoomAssignmentDto.TypeResult> results = new ArrayList<>();
+    int reservations = 0;
+    int moved = 0;
+    int orphanNightsBefore = 0;
+    int orphanNightsAfter = 0;
+    for (Plan plan : plans) {
+      String note = plan.note();
+      if (note == null && !plan.improves()) {
+        note = "no improvement";
+      }
+      boolean applied = false;
+      if (note == null && !dryRun) {
+        note = apply(plan);
+        applied = note == null;
+      }
+      boolean counts = applied || (dryRun && note == null);
+      reservations += plan.reservations();
+      moved += counts ? plan.moves().size() : 0;
+      orphanNightsBefore += plan.orphanNightsBefore();
+      orphanNightsAfter += counts ? plan.orphanNightsAfter() : plan.orphanNightsBefore();
+      results.add(
+          RoomAssignmentDto.TypeResult.builder()
+              .type(plan.type())
+              .rooms(plan.rooms())
+              .reservations(plan.reservations())
+              .moved(plan.moves().size())
+              .orphanNightsBefore(plan.orphanNightsBefore())
+              .orphanNightsAfter(plan.orphanNightsAfter())
+              .applied(applied)
+              .note(note)
+              .build());
+    }
+
+    return RoomAssignmentDto.Report.builder()
+        .dryRun(dryRun)
+        .horizonDays(HORIZON_DAYS)
+        .reservations(reservations)
+        .moved(moved)
+        .orphanNightsBefore(orphanNightsBefore)
+        .orphanNightsAfter(orphanNightsAfter)
+        .recoveredRoomNights(orphanNightsBefore - orphanNightsAfter)
+        .elapsedMillis((System.nanoTime() - started) / 1_000_000)
+        .types(results)
+        .build();
+  }
+
+  /** Pin a reservation to its room, or let the optimizer move it again. */
+  @Transactional
+  public void setRoomLocked(Long reservationId, boolean locked) {
+    Reservation reservation =
+        reservationRepository
+            .findById(reservationId)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found"));
+    reservation.setRoomLocked(locked);
+  }
+
+  private Plan plan(RoomType type, List<RoomSummaryDto> rooms, List<Stay> stays, LocalDate today) {
+    Map<Long, Integer> roomIndex = new HashMap<>();
+    BitSet[] occupied = new BitSet[rooms.size()];
+    for (int r = 0; r < rooms.size(); r++) {
+      roomIndex.put(rooms.get(r).getId(), r);
+      occupied[r] = availabilityIndex.blockedNights(rooms.get(r).getId(), today, HORIZON_DAYS);
+    }
+    int orphansBefore = orphanNights(occupied);
+
+    // What remains once the movable stays are lifted out are the fixed blocks
+    for (Stay stay : stays) {
+      occupied[roomIndex.get(stay.roomId())].clear(stay.from(), stay.to());
+    }
+
+    List<Stay> ordered =
+        stays.stream()
+            .sorted(
+                Comparator.comparingInt(Stay::from)
+                    .thenComparing(Comparator.comparingInt(Stay::to).reversed())
+                    .thenComparing(Stay::reservationId))
+            .toList();
+    List<Move> moves = new ArrayList<>();
+    for (Stay stay : ordered) {
+      int current = roomIndex.get(stay.roomId());
+      int best = -1;
+      long bestScore = Long.MAX_VALUE;
+      for (int r = 0; r < occupied.length; r++) {
+        int next = occupied[r].nextSetBit(stay.from());
+        if (next >= 0 && next < stay.to()) {
+          continue;
+        }
+        int previous = stay.from() > 0 ? occupied[r].previousSetBit(stay.from() - 1) : -1;
+        int gapBefore = previous >= 0 ? stay.from() - previous - 1 : -1;
+        int gapAfter = next >= 0 ? next - stay.to() : -1;
+        long score = fitScore(gapBefore, gapAfter, r == current);
+        if (score < bestScore) {
+          best = r;
+          bestScore = score;
+        }
+      }
+      if (best < 0) {
+        return new Plan(
+            type,
+            rooms.size(),
+            stays.size(),
+            List.of(),
+            orphansBefore,
+            orphansBefore,
+            "reservation " + stay.reservationId() + " fits in no room");
+      }
+      occupied[best].set(stay.from(), stay.to());
+      if (best != current) {
+        moves.add(new Move(stay, rooms.get(best).getId()));
+      }
+    }
+    return new Plan(
+        type, rooms.size(), stays.size(), moves, orphansBefore, orphanNights(occupied), null);
+  }
+
+  /** Move the planned reservations; returns why the plan was rolled back, or null. */
+  private String apply(Plan plan) {
+    Map<Long, Move> movesById =
+        plan.moves().stream()
+            .collect(Collectors.toMap(move -> move.stay().reservationId(), Function.identity()));
+    Set<Long> roomIds = new HashSet<>();
+    plan.moves().forEach(move -> roomIds.addAll(List.of(move.stay().roomId(), move.toRoomId())));
+    try {
+      // Bookings of the rooms wait until the moves are committed and in the index
+      return roomBookingLocks.withRoomLocks(
+          roomIds,
+          () -> {
+            transactionTemplate.executeWithoutResult(status -> move(plan, movesById));
+            return null;
+          });
+    } catch (IllegalStateException
+        | DataAccessException
+        | TransactionException
+        | ResponseStatusException e) {
+      logger.warning("Room assignment of " + plan.type() + " rolled back: " + e.getMessage());
+      return "rolled back: " + e.getMessage();
+    }
+  }
+
+  private void move(Plan plan, Map<Long, Move> movesById) {
+    checkTargetsStillFree(plan.moves());
+    jdbcTemplate.execute(
+        "SET CONSTRAINTS " + ReservationRepository.STAY_OVERLAP_CONSTRAINT + " DEFERRED");
+    List<Reservation> reservations = reservationRepository.findByIdIn(movesById.keySet());
+    if (reservations.size() != movesById.size()) {
+      throw new IllegalStateException("reservations were deleted during planning");
+    }
+    for (Reservation reservation : reservations) {
+      Move move = movesById.get(reservation.getId());
+      if (!move.stay().matches(reservation)) {
+        throw new IllegalStateException(
+            "reservation " + reservation.getId() + " changed during planning");
+      }
+      reservation.setRoom(roomRepository.getReferenceById(move.toRoomId()));
+    }
+  }
+
+  /**
+   * Check the target nights against the index, holds included, for bookings made since planning.
+   * The nights of the stays the plan moves out of a room do not count.
+   */
+  private void checkTargetsStillFree(List<Move> moves) {
+    LocalDate from = LocalDate.now();
+    int days =
+        moves.stream()
+            .mapToInt(move -> (int) ChronoUnit.DAYS.between(from, move.stay().checkOut()))
+            .max()
+            .orElse(0);
+    Map<Long, BitSet> blocked = new HashMap<>();
+    for (Move move : moves) {
+      blocked.computeIfAbsent(
+          move.toRoomId(), roomId -> availabilityIndex.blockedNights(roomId, from, days));
+    }
+    for (Move move : moves) {
+      BitSet nights = blocked.get(move.stay().roomId());
+      if (nights != null) {
+        nights.clear(offset(from, move.stay().checkIn()), offset(from, move.stay().checkOut()));
+      }
+    }
+    for (Move move : moves) {
+      int start = offset(from, move.stay().checkIn());
+      int next = blocked.get(move.toRoomId()).nextSetBit(start);
+      if (next >= 0 && next < offset(from, move.stay().checkOut())) {
+        throw new IllegalStateException(
+            "room "
+                + move.toRoomId()
+                + " was booked for the nights of reservation "
+                + move.stay().reservationId());
+      }
+    }
+  }
+
+  private static int offset(LocalDate from, LocalDate night) {
+    return (int) Math.max(0, ChronoUnit.DAYS.between(from, night));
+  }
+
+  /**
+   * Lower is better: leave no orphan gap, then fit right after the previous stay of the room,
+   * then stay in the current room.
+   */
+  private static long fitScore(int gapBefore, int gapAfter, boolean currentRoom) {
+    long orphans = orphanGap(gapBefore) + orphanGap(gapAfter);
+    long slack = gapBefore >= 0 ? gapBefore : HORIZON_DAYS;
+    return (orphans * (HORIZON_DAYS + 1) + slack) * 2 + (currentRoom ? 0 : 1);
+  }
+
+  private static int orphanGap(int gap) {
+    return gap > 0 && gap < MIN_SELLABLE_GAP ? gap : 0;
+  }
+
+  /** Free nights in runs too short to sell, between two blocked nights of the same room. */
+  private static int orphanNights(BitSet[] occupied) {
+    int orphans = 0;
+    for (BitSet nights : occupied) {
+      int blocked = nights.nextSetBit(0);
+      while (blocked >= 0) {
+        int free = nights.nextClearBit(blocked);
+        int next = nights.nextSetBit(free);
+        if (next < 0) {
+          break;
+        }
+        orphans += orphanGap(next - free);
+        blocked = next;
+      }
+    }
+    return orphans;
+  }
+
+  /** Nights of a movable reservation relative to today, or null if it cannot move. */
+  private static Stay stay(Reservation reservation, LocalDate today) {
+    long start = ChronoUnit.DAYS.between(today, checkIn(reservation.getStartDatetime()));
+    long end =
+        ChronoUnit.DAYS.between(
+            today, checkOut(reservation.getStartDatetime(), reservation.getEndDatetime()));
+    if (start < 1 || end > HORIZON_DAYS) {
+      return null;
+    }
+    return new Stay(
+        reservation.getId(),
+        reservation.getRoom().getId(),
+        reservation.getStartDatetime(),
+        reservation.getEndDatetime(),
+        (int) start,
+        (int) end);
+  }
+
+  private static LocalDate checkIn(LocalDateTime start) {
+    return start.toLocalDate();
+  }
+
+  /** The day after the last night; a same-day stay still takes one night. */
+  private static LocalDate checkOut(LocalDateTime start, LocalDateTime end) {
+    LocalDate to = end.toLocalDate();
+    return to.isAfter(start.toLocalDate()) ? to : start.toLocalDate().plusDays(1);
+  }
+
+  private record Stay(
+      Long reservationId,
+      Long roomId,
+      LocalDateTime startDatetime,
+      LocalDateTime endDatetime,
+      int from,
+      int to) {
+
+    LocalDate checkIn() {
+      return RoomAssignmentOptimizer.checkIn(startDatetime);
+    }
+
+    LocalDate checkOut() {
+      return RoomAssignmentOptimizer.checkOut(startDatetime, endDatetime);
+    }
+
+    /** Whether the reservation is still the one that was planned, in the same room. */
+    boolean matches(Reservation reservation) {
+      return reservation.getRoom().getId().equals(roomId)
+          && reservation.getStartDatetime().equals(startDatetime)
+          && reservation.getEndDatetime().equals(endDatetime)
+          && !Boolean.TRUE.equals(reservation.getRoomLocked())
+          && (reservation.getReservationStatus() == ReservationStatus.PENDING
+              || reservation.getReservationStatus() == ReservationStatus.CONFIRMED);
+    }
+  }
+
+  private record Move(Stay stay, Long toRoomId) {}
+
+  private record Plan(
+      RoomType type,
+      int rooms,
+      int reservations,
+      List<Move> moves,
+      int orphanNightsBefore,
+      int orphanNightsAfter,
+      String note) {
+
+    boolean improves() {
+      return !moves.isEmpty() && orphanNightsAfter < orphanNightsBefore;
+    }
+  }
+}
@@ -0,0 +1,291 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+import master.master.domain.ReservationStatus;
+import master.master.domain.UnavailabilityStatus;
+import master.master.event.ReservationChangedEvent;
+import master.master.event.RoomUnavailabilityChangedEvent;
+import master.master.repository.ReservationRepository;
+import master.master.repository.RoomUnavailabilityRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of the nights each room is blocked by a reservation, an unavailability or a
+ * checkout hold.
+ *
+ * <p>The index is loaded once the application is ready and then kept up to date from {@link
+ * ReservationChangedEvent} and {@link RoomUnavailabilityChangedEvent}, which are only applied after
+ * the writing transaction commits. Holds live only here. Each room keeps a sorted map of blocked
+ * nights with a reference count, so overlapping blocks can be added and removed independently, and
+ * a day bitmap with one bit per blocked night, so that a date-range lookup is a single {@code
+ * nextSetBit} call and a year-long calendar is one {@code BitSet.get(from, to)} copy.
+ *
+ * <p>A stay blocks the nights {@code [start date, end date)}: the check-out day stays sellable.
+ * An unavailability also blocks its last day when it ends after midnight.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+  private static final Logger logger = Logger.getLogger(RoomAvailabilityIndex.class.getName());
+
+  private final ReservationRepository reservationRepository;
+  private final RoomUnavailabilityRepository unavailabilityRepository;
+
+  private final Map<Long, RoomNights> rooms = new ConcurrentHashMap<>();
+  private final Map<Long, Block> reservationBlocks = new ConcurrentHashMap<>();
+  private final Map<Long, Block> unavailabilityBlocks = new ConcurrentHashMap<>();
+  private final Map<Long, Block> holdBlocks = new ConcurrentHashMap<>();
+  private final List<NightsListener> listeners = new CopyOnWriteArrayList<>();
+
+  /** Night of bit 0 in the day bitmaps; earlier nights are in the past and never searched. */
+  private final LocalDate origin = LocalDate.now();
+
+  public RoomAvailabilityIndex(
+      ReservationRepository reservationRepository,
+      RoomUnavailabilityRepository unavailabilityRepository) {
+    this.reservationRepository = reservationRepository;
+    this.unavailabilityRepository = unavailabilityRepository;
+  }
+
+  /** Load every reservation and unavailability that still affects today or a future night. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    LocalDateTime from = LocalDate.now().atStartOfDay();
+
+    List<ReservationStatus> reservationStatuses =
+        Arrays.stream(ReservationStatus.values()).filter(ReservationStatus::blocksInventory).toList();
+    reservationRepository
+        .findByEndDatetimeAfterAndReservationStatusIn(from, reservationStatuses)
+        .forEach(
+            reservation ->
+                put(
+                    reservationBlocks,
+                    reservation.getId(),
+                    reservationBlock(
+                        reservation.getRoom().getId(),
+                        reservation.getStartDatetime(),
+                        reservation.getEndDatetime())));
+
+    List<UnavailabilityStatus> unavailabilityStatuses =
+        Arrays.stream(UnavailabilityStatus.values())
+            .filter(UnavailabilityStatus::blocksInventory)
+            .toList();
+    unavailabilityRepository
+        .findByEndDatetimeAfterAndUnavailabilityStatusIn(from, unavailabilityStatuses)
+        .forEach(
+            unavailability ->
+                put(
+                    unavailabilityBlocks,
+                    unavailability.getId(),
+                    unavailabilityBlock(
+                        unavailability.getRoom().getId(),
+                        unavailability.getStartDatetime(),
+                        unavailability.getEndDatetime())));
+
+    logger.info(
+        "Room availability index loaded: "
+            + reservationBlocks.size()
+            + " reservations, "
+            + unavailabilityBlocks.size()
+            + " unavailabilities.");
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onReservationChanged(ReservationChangedEvent event) {
+    if (event.reservationId() == null) {
+      return;
+    }
+    Block block =
+        event.blocksInventory()
+            ? reservationBlock(event.roomId(), event.startDatetime(), event.endDatetime())
+            : null;
+    put(reservationBlocks, event.reservationId(), block);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUnavailabilityChanged(RoomUnavailabilityChangedEvent event) {
+    if (event.unavailabilityId() == null) {
+      return;
+    }
+    Block block =
+        event.blocksInventory()
+            ? unavailabilityBlock(event.roomId(), event.startDatetime(), event.endDatetime())
+            : null;
+    put(unavailabilityBlocks, event.unavailabilityId(), block);
+  }
+
+  /** Block the nights of a checkout hold until {@link #releaseHold} is called. */
+  public void hold(Long holdId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+    put(holdBlocks, holdId, new Block(roomId, checkIn, checkOut));
+  }
+
+  public void releaseHold(Long holdId) {
+    put(holdBlocks, holdId, null);
+  }
+
+  /**
+   * Whether the room has no blocked night between check-in (inclusive) and check-out (exclusive).
+   */
+  public boolean isAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+    RoomNights nights = rooms.get(roomId);
+    return nights == null || nights.isFree(checkIn, checkOut);
+  }
+
+  /**
+   * Blocked nights of the room from {@code from} (inclusive) over {@code days} nights: bit {@code i}
+   * is set when night {@code from + i} is blocked. The returned set is a copy.
+   */
+  public BitSet blockedNights(Long roomId, LocalDate from, int days) {
+    RoomNights nights = rooms.get(roomId);
+    return nights == null ? new BitSet() : nights.blocked(from, from.plusDays(days));
+  }
+
+  /**
+   * Register a listener told about every block added or removed, once the room's nights are
+   * updated. It runs on the writing thread and must not call back into the index's writers.
+   */
+  public void addListener(NightsListener listener) {
+    listeners.add(listener);
+  }
+
+  /** Drop nights that are already in the past; they can no longer be searched. */
+  @Scheduled(cron = "0 5 0 * * *")
+  public void evictPastNights() {
+    LocalDate today = LocalDate.now();
+    rooms.values().forEach(nights -> nights.evictBefore(today));
+  }
+
+  /** Replace the block registered under {@code id}, moving its nights between rooms if needed. */
+  private void put(Map<Long, Block> blocks, Long id, Block block) {
+    blocks.compute(
+        id,
+        (key, previous) -> {
+          if (previous != null) {
+            nightsOf(previous.roomId()).remove(previous.from(), previous.to());
+            notifyListeners(previous);
+          }
+          if (block != null) {
+            nightsOf(block.roomId()).add(block.from(), block.to());
+            notifyListeners(block);
+          }
+          return block;
+        });
+  }
+
+  private void notifyListeners(Block block) {
+    listeners.forEach(
+        listener -> listener.nightsChanged(block.roomId(), block.from(), block.to()));
+  }
+
+  private RoomNights nightsOf(Long roomId) {
+    return rooms.computeIfAbsent(roomId, id -> new RoomNights(origin));
+  }
+
+  private static Block reservationBlock(Long roomId, LocalDateTime start, LocalDateTime end) {
+    if (roomId == null || start == null || end == null) {
+      return null;
+    }
+    LocalDate from = start.toLocalDate();
+    LocalDate to = end.toLocalDate();
+    return new Block(roomId, from, to.isAfter(from) ? to : from.plusDays(1));
+  }
+
+  private static Block unavailabilityBlock(Long roomId, LocalDateTime start, LocalDateTime end) {
+    if (roomId == null || start == null || end == null) {
+      return null;
+    }
+    LocalDate from = start.toLocalDate();
+    LocalDate to =
+        end.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? end.toLocalDate()
+            : end.toLocalDate().plusDays(1);
+    return new Block(roomId, from, to.isAfter(from) ? to : from.plusDays(1));
+  }
+
+  /** Callback for changes of the blocked nights {@code [from, to)} of a room. */
+  @FunctionalInterface
+  public interface NightsListener {
+    void nightsChanged(Long roomId, LocalDate from, LocalDate to);
+  }
+
+  private record Block(Long roomId, LocalDate from, LocalDate to) {}
+
+  /**
+   * Blocked nights of a single room, reference counted so that overlapping blocks can coexist. The
+   * bitmap mirrors the nights with a non-zero count from the index origin on.
+   */
+  private static final class RoomNights {
+
+    private final LocalDate origin;
+    private final NavigableMap<LocalDate, Integer> blocked = new TreeMap<>();
+    private final BitSet bits = new BitSet(400);
+
+    RoomNights(LocalDate origin) {
+      this.origin = origin;
+    }
+
+    synchronized void add(LocalDate from, LocalDate to) {
+      for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+        if (blocked.merge(night, 1, Integer::sum) == 1 && !night.isBefore(origin)) {
+          bits.set(bit(night));
+        }
+      }
+    }
+
+    synchronized void remove(LocalDate from, LocalDate to) {
+      for (LocalDate night = from; night.isBefore(to); night = night.plusDays(1)) {
+        if (blocked.computeIfPresent(night, (key, count) -> count > 1 ? count - 1 : null) == null
+            && !night.isBefore(origin)) {
+          bits.clear(bit(night));
+        }
+      }
+    }
+
+    synchronized boolean isFree(LocalDate from, LocalDate to) {
+      if (from.isBefore(origin)) {
+        LocalDate next = blocked.ceilingKey(from);
+        return next == null || !next.isBefore(to);
+      }
+      int next = bits.nextSetBit(bit(from));
+      return next < 0 || next >= bit(to);
+    }
+
+    synchronized BitSet blocked(LocalDate from, LocalDate to) {
+      if (from.isBefore(origin)) {
+        BitSet result = new BitSet();
+        blocked
+            .subMap(from, true, to, false)
+            .keySet()
+            .forEach(night -> result.set((int) (night.toEpochDay() - from.toEpochDay())));
+        return result;
+      }
+      return bits.get(bit(from), bit(to));
+    }
+
+    synchronized void evictBefore(LocalDate day) {
+      blocked.headMap(day, false).clear();
+      if (day.isAfter(origin)) {
+        bits.clear(0, bit(day));
+      }
+    }
+
+    private int bit(LocalDate night) {
+      return (int) (night.toEpochDay() - origin.toEpochDay());
+    }
+  }
+}
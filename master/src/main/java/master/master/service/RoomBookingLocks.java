@@ -0,0 +1,91 @@
+package master.master.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Striped per-room locks serializing the bookings of a room within this instance.
+ *
+ * <p>Room ids map onto a fixed array of locks, so bookings of the same room run one after the
+ * other while most bookings of different rooms proceed in parallel, with no per-room lock objects
+ * to create or clean up. The lock must be held around the whole booking transaction, commit
+ * included, so callers take it outside of any {@code @Transactional} method. The exclusion
+ * constraint on {@code reservations} remains the guard across instances.
+ */
+@Component
+public class RoomBookingLocks {
+
+  private static final int DEFAULT_STRIPES = 64;
+  private static final Duration DEFAULT_WAIT = Duration.ofSeconds(5);
+
+  private final ReentrantLock[] stripes;
+  private final long waitNanos;
+
+  public RoomBookingLocks() {
+    this(DEFAULT_STRIPES, DEFAULT_WAIT);
+  }
+
+  RoomBookingLocks(int stripeCount, Duration wait) {
+    stripes = new ReentrantLock[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+    waitNanos = wait.toNanos();
+  }
+
+  /**
+   * Run {@code booking} while holding the lock of the room.
+   *
+   * @throws ResponseStatusException 409 if the lock could not be taken in time
+   */
+  public <T> T withRoomLock(Long roomId, Supplier<T> booking) {
+    return withRoomLocks(List.of(roomId), booking);
+  }
+
+  /**
+   * Run {@code work} while holding the locks of all the rooms. Stripes are taken in index order,
+   * so two callers locking overlapping rooms cannot deadlock.
+   *
+   * @throws ResponseStatusException 409 if a lock could not be taken in time
+   */
+  public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> work) {
+    int[] indexes =
+        roomIds.stream()
+            .mapToInt(roomId -> Math.floorMod(roomId.hashCode(), stripes.length))
+            .distinct()
+            .sorted()
+            .toArray();
+    long deadline = System.nanoTime() + waitNanos;
+    int held = 0;
+    try {
+      for (int index : indexes) {
+        if (!tryLock(stripes[index], deadline - System.nanoTime())) {
+          throw new ResponseStatusException(
+              HttpStatus.CONFLICT, "Room is being booked by someone else, please retry");
+        }
+        held++;
+      }
+      return work.get();
+    } finally {
+      for (int i = held - 1; i >= 0; i--) {
+        stripes[indexes[i]].unlock();
+      }
+    }
+  }
+
+  private static boolean tryLock(ReentrantLock lock, long nanos) {
+    try {
+      return lock.tryLock(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package master.master.service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import master.master.domain.RoomType;
+import master.master.web.rest.dto.RoomCalendarDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Availability and price calendars for the client booking calendar, read from the day bitmaps of
+ * the {@link RoomAvailabilityIndex}, the room catalog snapshot and the cached rates of the {@link
+ * RoomPricingService}. No database access.
+ */
+@Service
+public class RoomCalendarService {
+
+  private static final int MAX_DAYS = 366;
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+  private final RoomPricingService pricingService;
+
+  public RoomCalendarService(
+      RoomCatalogService roomCatalogService,
+      RoomAvailabilityIndex availabilityIndex,
+      RoomPricingService pricingService) {
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    this.pricingService = pricingService;
+  }
+
+  /** Calendar of one hotel room from today, or empty if there is no such room. */
+  public Optional<RoomCalendarDto> forRoom(Long roomId, int days) {
+    LocalDate from = LocalDate.now();
+    int length = clampDays(days);
+    return roomCatalogService.current().rooms().stream()
+        .filter(room -> room.getId().equals(roomId) && room.getType().isHotelRoom())
+        .findFirst()
+        .map(room -> calendar(room, from, length));
+  }
+
+  /** Calendars of every room of the given type from today, in room number order. */
+  public List<RoomCalendarDto> forType(RoomType type, int days) {
+    if (!type.isHotelRoom()) {
+      throw new IllegalArgumentException("Not a hotel room type: " + type);
+    }
+    LocalDate from = LocalDate.now();
+    int length = clampDays(days);
+    return roomCatalogService.current().rooms().stream()
+        .filter(room -> room.getType() == type)
+        .map(room -> calendar(room, from, length))
+        .toList();
+  }
+
+  private RoomCalendarDto calendar(RoomSummaryDto room, LocalDate from, int days) {
+    boolean[] bookable = new boolean[days];
+    if (room.getStatus().isSellable()) {
+      BitSet blocked = availabilityIndex.blockedNights(room.getId(), from, days);
+      for (int night = 0; night < days; night++) {
+        bookable[night] = !blocked.get(night);
+      }
+    }
+    double[] prices = nightlyPrices(room, from, days);
+    return RoomCalendarDto.builder()
+        .roomId(room.getId())
+        .roomNumber(room.getNumber())
+        .from(from)
+        .days(days)
+        .bookable(bookable)
+        .prices(prices)
+        .build();
+  }
+
+  /** Price of each night of the room from {@code from} over {@code days} nights. */
+  public double[] nightlyPrices(RoomSummaryDto room, LocalDate from, int days) {
+    return pricingService.nightlyPrices(room.getId(), room.getPrice(), from, days);
+  }
+
+  private static int clampDays(int days) {
+    if (days < 1) {
+      throw new IllegalArgumentException("Calendar length must be at least one day");
+    }
+    return Math.min(days, MAX_DAYS);
+  }
+}
@@ -0,0 +1,179 @@
+package master.master.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import master.master.domain.Amenity;
+import master.master.domain.Room;
+import master.master.repository.AmenityRepository;
+import master.master.repository.RoomRepository;
+import master.master.web.rest.dto.RoomPageDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import master.master.web.rest.dto.RoomViewDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves the room catalog from an immutable in-memory snapshot.
+ *
+ * <p>The snapshot holds the rooms as DTOs, their pre-serialized JSON and a strong ETag derived from
+ * that JSON. It is rebuilt in full and swapped in one assignment whenever rooms are written, so
+ * readers always see either the old or the new catalog, never a mix of both.
+ */
+@Service
+@Transactional(readOnly = true)
+public class RoomCatalogService {
+
+  private static final Logger logger = Logger.getLogger(RoomCatalogService.class.getName());
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final RoomRepository roomRepository;
+  private final AmenityRepository amenityRepository;
+  private final ObjectMapper objectMapper;
+  private final AtomicLong versions = new AtomicLong();
+
+  private volatile Snapshot snapshot;
+
+  public RoomCatalogService(
+      RoomRepository roomRepository,
+      AmenityRepository amenityRepository,
+      ObjectMapper objectMapper) {
+    this.roomRepository = roomRepository;
+    this.amenityRepository = amenityRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Build the first snapshot once the data initializers have run. */
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  /** Current catalog, built on first use if no snapshot exists yet. */
+  public Snapshot current() {
+    Snapshot current = snapshot;
+    return current != null ? current : rebuild();
+  }
+
+  /**
+   * Rooms having every listed amenity, matched with one AND per room on the amenity bitmasks. An
+   * unknown amenity code matches no room.
+   */
+  public List<RoomSummaryDto> findByAmenities(Collection<String> amenityCodes) {
+    Snapshot catalog = current();
+    long requiredMask = 0L;
+    for (String code : amenityCodes) {
+      Long mask = catalog.amenityMasks().get(code);
+      if (mask == null) {
+        return List.of();
+      }
+      requiredMask |= mask;
+    }
+    long required = requiredMask;
+    return catalog.rooms().stream().filter(room -> room.hasAllAmenities(required)).toList();
+  }
+
+  /**
+   * One page of rooms after the given room number, read straight from the database as {@link
+   * RoomViewDto}. One extra row is fetched to tell whether another page follows.
+   *
+   * @param after room number of the last room of the previous page, null for the first page
+   * @param size page size, capped at {@value #MAX_PAGE_SIZE}
+   */
+  public RoomPageDto page(String after, int size) {
+    int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    List<RoomViewDto> rooms =
+        roomRepository.findViewsAfter(after != null ? after : "", Limit.of(limit + 1));
+    if (rooms.size() <= limit) {
+      return RoomPageDto.builder().rooms(rooms).build();
+    }
+    List<RoomViewDto> page = rooms.subList(0, limit);
+    return RoomPageDto.builder()
+        .rooms(page)
+        .nextAfter(page.get(limit - 1).getNumber())
+        .build();
+  }
+
+  /** Reload every room and atomically replace the snapshot. Call after any room write. */
+  public synchronized Snapshot rebuild() {
+    List<RoomSummaryDto> rooms =
+        roomRepository.findAllForCatalog().stream().map(RoomCatalogService::toSummary).toList();
+    Map<String, Long> amenityMasks =
+        amenityRepository.findAll().stream()
+            .collect(Collectors.toUnmodifiableMap(Amenity::getAmenityCode, Amenity::getMask));
+    try {
+      byte[] json = objectMapper.writeValueAsBytes(rooms);
+      Snapshot rebuilt =
+          new Snapshot(
+              versions.incrementAndGet(),
+              rooms,
+              amenityMasks,
+              json,
+              "\"" + digest(json) + "\"");
+      snapshot = rebuilt;
+      logger.fine(
+          "Room catalog rebuilt: version " + rebuilt.version() + ", " + rooms.size() + " rooms");
+      return rebuilt;
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not serialize the room catalog", e);
+    }
+  }
+
+  private static RoomSummaryDto toSummary(Room room) {
+    return RoomSummaryDto.builder()
+        .id(room.getId())
+        .number(room.getNumber())
+        .name(room.getName())
+        .type(room.getType())
+        .capacity(room.getCapacity() != null ? room.getCapacity().intValue() : null)
+        .description(room.getDescription())
+        .price(room.getPrice())
+        .status(room.getStatus())
+        .imageUrl(room.getImageUrl())
+        .floorNumber(room.getFloorNumber())
+        .hasProjector(room.getHasProjector())
+        .hasWhiteboard(room.getHasWhiteboard())
+        .hasVideoConference(room.getHasVideoConference())
+        .hasAirConditioning(room.getHasAirConditioning())
+        .amenities(room.getAmenities().stream().map(Amenity::getLabel).sorted().toList())
+        // Kept up to date by the rooms_amenities trigger
+        .amenityMask(room.getAmenityMask() != null ? room.getAmenityMask() : 0L)
+        .build();
+  }
+
+  private static String digest(byte[] json) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+      return HexFormat.of().formatHex(hash, 0, 16);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * One immutable version of the catalog.
+   *
+   * @param version local rebuild counter, for diagnostics only
+   * @param rooms rooms ordered by number
+   * @param amenityMasks bit of each amenity, by amenity code
+   * @param json the rooms serialized as a JSON array; callers must not modify it
+   * @param etag strong, quoted entity tag of {@code json}
+   */
+  public record Snapshot(
+      long version,
+      List<RoomSummaryDto> rooms,
+      Map<String, Long> amenityMasks,
+      byte[] json,
+      String etag) {}
+}
@@ -0,0 +1,277 @@
+package master.master.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import master.master.domain.RoomType;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Nightly room rates derived from the base price, the occupancy of the room type on that night,
+ * the day of the week and the lead time.
+ *
+ * <p>Rates are cached in cents, one {@code int} per room and night over the next {@value
+ * #HORIZON_DAYS} nights, so a quote is a sum over a primitive array. The blocked-room counts per
+ * type and night are kept next to them. When the {@link RoomAvailabilityIndex} adds or removes a
+ * block, only the nights of that block are marked stale for the room's type, and they are
+ * recomputed on the next read. The whole table is rebuilt when the catalog changes or a new day
+ * starts, since every lead time moves by one.
+ *
+ * <p>Nights outside the horizon (past nights or more than a year ahead) are priced with the same
+ * formula at zero occupancy.
+ */
+@Service
+public class RoomPricingService {
+
+  public static final int HORIZON_DAYS = 366;
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+
+  /** Stale nights per room type, relative to the origin of the current table. */
+  private final BitSet[] staleNights = new BitSet[RoomType.values().length];
+
+  private volatile RateTable table;
+
+  public RoomPricingService(
+      RoomCatalogService roomCatalogService, RoomAvailabilityIndex availabilityIndex) {
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+    for (int type = 0; type < staleNights.length; type++) {
+      staleNights[type] = new BitSet(HORIZON_DAYS);
+    }
+    availabilityIndex.addListener(this::markStale);
+  }
+
+  /**
+   * Price of each night of the room from {@code from} over {@code days} nights. {@code basePrice}
+   * is only used for a room the catalog does not know yet.
+   */
+  public double[] nightlyPrices(Long roomId, Double basePrice, LocalDate from, int days) {
+    double[] prices = new double[days];
+    synchronized (this) {
+      RateTable rates = freshTable();
+      Integer row = rates.rowOf.get(roomId);
+      for (int night = 0; night < days; night++) {
+        prices[night] = rates.cents(row, basePrice, from.plusDays(night)) / 100.0;
+      }
+    }
+    return prices;
+  }
+
+  /**
+   * Total price of a stay from check-in (inclusive) to check-out (exclusive). {@code basePrice}
+   * is only used for a room the catalog does not know yet.
+   */
+  public double quote(Long roomId, Double basePrice, LocalDate checkIn, LocalDate checkOut) {
+    long total = 0;
+    synchronized (this) {
+      RateTable rates = freshTable();
+      Integer row = rates.rowOf.get(roomId);
+      int from = rates.bit(checkIn);
+      int to = rates.bit(checkOut);
+      if (row != null && from >= 0 && to <= HORIZON_DAYS) {
+        int[] cents = rates.cents[row];
+        for (int night = from; night < to; night++) {
+          total += cents[night];
+        }
+      } else {
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+          total += rates.cents(row, basePrice, night);
+        }
+      }
+    }
+    return total / 100.0;
+  }
+
+  /** Current table, rebuilt if outdated and with its stale nights recomputed. */
+  private RateTable freshTable() {
+    RoomCatalogService.Snapshot catalog = roomCatalogService.current();
+    LocalDate today = LocalDate.now();
+    RateTable rates = table;
+    if (rates == null || rates.version != catalog.version() || !rates.origin.equals(today)) {
+      // Cleared before reading the index, so changes made during the build are redone afterwards
+      synchronized (staleNights) {
+        for (BitSet nights : staleNights) {
+          nights.clear();
+        }
+      }
+      rates = new RateTable(catalog, today);
+      rates.recount(availabilityIndex, allNights());
+      table = rates;
+      return rates;
+    }
+    for (RoomType type : RoomType.values()) {
+      BitSet stale;
+      synchronized (staleNights) {
+        if (staleNights[type.ordinal()].isEmpty()) {
+          continue;
+        }
+        stale = (BitSet) staleNights[type.ordinal()].clone();
+        staleNights[type.ordinal()].clear();
+      }
+      rates.recount(availabilityIndex, type, stale);
+    }
+    return rates;
+  }
+
+  private void markStale(Long roomId, LocalDate from, LocalDate to) {
+    RateTable rates = table;
+    if (rates == null) {
+      return;
+    }
+    Integer row = rates.rowOf.get(roomId);
+    int start = Math.max(0, rates.bit(from));
+    int end = Math.min(HORIZON_DAYS, rates.bit(to));
+    if (row == null || start >= end) {
+      return;
+    }
+    synchronized (staleNights) {
+      staleNights[rates.types[row]].set(start, end);
+    }
+  }
+
+  private static BitSet allNights() {
+    BitSet nights = new BitSet(HORIZON_DAYS);
+    nights.set(0, HORIZON_DAYS);
+    return nights;
+  }
+
+  /** Rate of one night in cents. */
+  private static int rate(double basePrice, double occupancy, LocalDate night, LocalDate today) {
+    long lead = ChronoUnit.DAYS.between(today, night);
+    double price =
+        basePrice
+            * occupancyFactor(occupancy)
+            * dayOfWeekFactor(night.getDayOfWeek())
+            * leadTimeFactor(lead);
+    return (int) Math.round(price * 100);
+  }
+
+  /** From a 10% discount for an empty room type to a 30% premium for a full one. */
+  private static double occupancyFactor(double occupancy) {
+    return 0.9 + 0.4 * occupancy;
+  }
+
+  private static double dayOfWeekFactor(DayOfWeek day) {
+    return switch (day) {
+      case FRIDAY, SATURDAY -> 1.15;
+      case SUNDAY -> 0.95;
+      default -> 1.0;
+    };
+  }
+
+  /** Last-minute stays cost more, early bookings get a small discount. */
+  private static double leadTimeFactor(long leadDays) {
+    if (leadDays < 3) {
+      return 1.1;
+    }
+    return leadDays >= 60 ? 0.95 : 1.0;
+  }
+
+  /** Rates of every catalog room over the horizon, with the occupancy they were computed from. */
+  private static final class RateTable {
+    private final long version;
+    private final LocalDate origin;
+    private final Map<Long, Integer> rowOf = new HashMap<>();
+    private final long[] ids;
+    private final int[] types;
+    private final double[] basePrices;
+    private final boolean[] sellable;
+    private final int[][] cents;
+    private final int[][] roomsOfType;
+    private final int[] sellableOfType = new int[RoomType.values().length];
+    private final int[][] blockedOfType = new int[RoomType.values().length][HORIZON_DAYS];
+
+    private RateTable(RoomCatalogService.Snapshot catalog, LocalDate origin) {
+      this.version = catalog.version();
+      this.origin = origin;
+      List<RoomSummaryDto> rooms = catalog.rooms();
+      int size = rooms.size();
+      ids = new long[size];
+      types = new int[size];
+      basePrices = new double[size];
+      sellable = new boolean[size];
+      cents = new int[size][HORIZON_DAYS];
+      int[] typeCounts = new int[RoomType.values().length];
+      for (int row = 0; row < size; row++) {
+        RoomSummaryDto room = rooms.get(row);
+        rowOf.put(room.getId(), row);
+        ids[row] = room.getId();
+        types[row] = room.getType().ordinal();
+        basePrices[row] = room.getPrice() != null ? room.getPrice() : 0.0;
+        sellable[row] = room.getStatus().isSellable();
+        typeCounts[types[row]]++;
+        if (sellable[row]) {
+          sellableOfType[types[row]]++;
+        }
+      }
+      roomsOfType = new int[typeCounts.length][];
+      for (int type = 0; type < typeCounts.length; type++) {
+        roomsOfType[type] = new int[typeCounts[type]];
+        typeCounts[type] = 0;
+      }
+      for (int row = 0; row < size; row++) {
+        roomsOfType[types[row]][typeCounts[types[row]]++] = row;
+      }
+    }
+
+    void recount(RoomAvailabilityIndex index, BitSet nights) {
+      for (RoomType type : RoomType.values()) {
+        recount(index, type, nights);
+      }
+    }
+
+    /** Recount the blocked rooms of {@code type} on the given nights and reprice them. */
+    void recount(RoomAvailabilityIndex index, RoomType type, BitSet nights) {
+      int[] rows = roomsOfType[type.ordinal()];
+      if (rows.length == 0 || nights.isEmpty()) {
+        return;
+      }
+      int from = nights.nextSetBit(0);
+      int to = nights.length();
+      BitSet window = nights.get(from, to);
+      int[] blocked = blockedOfType[type.ordinal()];
+      for (int night = nights.nextSetBit(0); night >= 0; night = nights.nextSetBit(night + 1)) {
+        blocked[night] = 0;
+      }
+      for (int row : rows) {
+        if (!sellable[row]) {
+          continue;
+        }
+        BitSet roomNights = index.blockedNights(ids[row], origin.plusDays(from), to - from);
+        roomNights.and(window);
+        for (int bit = roomNights.nextSetBit(0); bit >= 0; bit = roomNights.nextSetBit(bit + 1)) {
+          blocked[from + bit]++;
+        }
+      }
+      int sellableRooms = sellableOfType[type.ordinal()];
+      for (int night = nights.nextSetBit(0); night >= 0; night = nights.nextSetBit(night + 1)) {
+        double occupancy = sellableRooms > 0 ? (double) blocked[night] / sellableRooms : 0.0;
+        LocalDate date = origin.plusDays(night);
+        for (int row : rows) {
+          cents[row][night] = rate(basePrices[row], occupancy, date, origin);
+        }
+      }
+    }
+
+    /** Cached rate of a night, or the zero-occupancy rate outside the table. */
+    int cents(Integer row, Double basePrice, LocalDate night) {
+      int bit = bit(night);
+      if (row != null && bit >= 0 && bit < HORIZON_DAYS) {
+        return cents[row][bit];
+      }
+      double price = row != null ? basePrices[row] : basePrice != null ? basePrice : 0.0;
+      return rate(price, 0.0, night, origin);
+    }
+
+    int bit(LocalDate night) {
+      return (int) ChronoUnit.DAYS.between(origin, night);
+    }
+  }
+}
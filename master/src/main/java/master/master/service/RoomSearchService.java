@@ -0,0 +1,209 @@
+package master.master.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import master.master.domain.RoomType;
+import master.master.web.rest.dto.RoomSearchRequestDto;
+import master.master.web.rest.dto.RoomSearchResultDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.springframework.stereotype.Service;
+
+/**
+ * Faceted room search over a column-oriented copy of the room catalog.
+ *
+ * <p>Each catalog snapshot is laid out as parallel primitive arrays (capacity, price, type, amenity
+ * mask, ...) so that a search is one tight loop over the rooms. The same loop filters the rooms and
+ * computes every facet: a room failing only the type criterion still counts in the type facet, and
+ * likewise for price, which tells the guest how many rooms each alternative would give.
+ */
+@Service
+public class RoomSearchService {
+
+  private static final double[] PRICE_BUCKET_UPPER_BOUNDS = {100, 200, 300, 500};
+  private static final String[] PRICE_BUCKET_LABELS = {
+    "0-100", "100-200", "200-300", "300-500", "500+"
+  };
+
+  private final RoomCatalogService roomCatalogService;
+  private final RoomAvailabilityIndex availabilityIndex;
+
+  private volatile RoomColumns columns;
+
+  public RoomSearchService(
+      RoomCatalogService roomCatalogService, RoomAvailabilityIndex availabilityIndex) {
+    this.roomCatalogService = roomCatalogService;
+    this.availabilityIndex = availabilityIndex;
+  }
+
+  public RoomSearchResultDto search(RoomSearchRequestDto criteria) {
+    boolean datedSearch = criteria.getCheckIn() != null || criteria.getCheckOut() != null;
+    if (datedSearch
+        && (criteria.getCheckIn() == null
+            || criteria.getCheckOut() == null
+            || !criteria.getCheckOut().isAfter(criteria.getCheckIn()))) {
+      throw new IllegalArgumentException("Check-out date must be after check-in date");
+    }
+
+    RoomColumns store = columns();
+    long typeFilter = 0L;
+    if (criteria.getTypes() != null) {
+      for (RoomType type : criteria.getTypes()) {
+        typeFilter |= 1L << type.ordinal();
+      }
+    }
+    long requiredAmenities = 0L;
+    if (criteria.getAmenities() != null) {
+      for (String code : criteria.getAmenities()) {
+        Long mask = store.amenityMasksByCode.get(code);
+        if (mask == null) {
+          return emptyResult();
+        }
+        requiredAmenities |= mask;
+      }
+    }
+    int minCapacity = criteria.getMinCapacity() != null ? criteria.getMinCapacity() : 0;
+    int maxCapacity =
+        criteria.getMaxCapacity() != null ? criteria.getMaxCapacity() : Integer.MAX_VALUE;
+    double minPrice = criteria.getMinPrice() != null ? criteria.getMinPrice() : 0.0;
+    double maxPrice =
+        criteria.getMaxPrice() != null ? criteria.getMaxPrice() : Double.POSITIVE_INFINITY;
+
+    int[] typeCounts = new int[RoomType.values().length];
+    int[] priceCounts = new int[PRICE_BUCKET_LABELS.length];
+    int[] amenityCounts = new int[Long.SIZE];
+    List<RoomSummaryDto> matches = new ArrayList<>();
+
+    for (int i = 0; i < store.size; i++) {
+      // Criteria without a facet must hold for the room to count anywhere
+      if (!store.bookable[i]
+          || store.capacities[i] < minCapacity
+          || store.capacities[i] > maxCapacity
+          || (store.amenityMasks[i] & requiredAmenities) != requiredAmenities) {
+        continue;
+      }
+      boolean typeMatches = typeFilter == 0L || (typeFilter & (1L << store.types[i])) != 0L;
+      boolean priceMatches = store.prices[i] >= minPrice && store.prices[i] <= maxPrice;
+      if (!typeMatches && !priceMatches) {
+        continue;
+      }
+      // The date check is the most expensive one, so it runs last
+      if (datedSearch
+          && !availabilityIndex.isAvailable(
+              store.ids[i], criteria.getCheckIn(), criteria.getCheckOut())) {
+        continue;
+      }
+      if (typeMatches) {
+        priceCounts[priceBucket(store.prices[i])]++;
+      }
+      if (priceMatches) {
+        typeCounts[store.types[i]]++;
+      }
+      if (typeMatches && priceMatches) {
+        matches.add(store.rooms.get(i));
+        for (long bits = store.amenityMasks[i]; bits != 0L; bits &= bits - 1) {
+          amenityCounts[Long.numberOfTrailingZeros(bits)]++;
+        }
+      }
+    }
+
+    Map<String, Integer> typeFacets = new LinkedHashMap<>();
+    for (RoomType type : RoomType.values()) {
+      if (typeCounts[type.ordinal()] > 0) {
+        typeFacets.put(type.name(), typeCounts[type.ordinal()]);
+      }
+    }
+    Map<String, Integer> priceFacets = new LinkedHashMap<>();
+    for (int bucket = 0; bucket < PRICE_BUCKET_LABELS.length; bucket++) {
+      priceFacets.put(PRICE_BUCKET_LABELS[bucket], priceCounts[bucket]);
+    }
+    Map<String, Integer> amenityFacets = new LinkedHashMap<>();
+    for (int bit = 0; bit < Long.SIZE; bit++) {
+      if (amenityCounts[bit] > 0 && store.amenityCodesByBit[bit] != null) {
+        amenityFacets.put(store.amenityCodesByBit[bit], amenityCounts[bit]);
+      }
+    }
+
+    return RoomSearchResultDto.builder()
+        .total(matches.size())
+        .rooms(matches)
+        .typeFacets(typeFacets)
+        .priceFacets(priceFacets)
+        .amenityFacets(amenityFacets)
+        .build();
+  }
+
+  /** Column store of the current catalog snapshot, rebuilt when the catalog changes. */
+  private RoomColumns columns() {
+    RoomCatalogService.Snapshot snapshot = roomCatalogService.current();
+    RoomColumns current = columns;
+    if (current == null || current.version != snapshot.version()) {
+      current = new RoomColumns(snapshot);
+      columns = current;
+    }
+    return current;
+  }
+
+  private static int priceBucket(double price) {
+    int bucket = 0;
+    while (bucket < PRICE_BUCKET_UPPER_BOUNDS.length
+        && price >= PRICE_BUCKET_UPPER_BOUNDS[bucket]) {
+      bucket++;
+    }
+    return bucket;
+  }
+
+  private static RoomSearchResultDto emptyResult() {
+    return RoomSearchResultDto.builder()
+        .total(0)
+        .rooms(List.of())
+        .typeFacets(Map.of())
+        .priceFacets(Map.of())
+        .amenityFacets(Map.of())
+        .build();
+  }
+
+  /** The rooms of one catalog snapshot, one array per searchable attribute. */
+  private static final class RoomColumns {
+    private final long version;
+    private final int size;
+    private final List<RoomSummaryDto> rooms;
+    private final long[] ids;
+    private final int[] capacities;
+    private final double[] prices;
+    private final int[] types;
+    private final long[] amenityMasks;
+    private final boolean[] bookable;
+    private final Map<String, Long> amenityMasksByCode;
+    private final String[] amenityCodesByBit = new String[Long.SIZE];
+
+    private RoomColumns(RoomCatalogService.Snapshot snapshot) {
+      version = snapshot.version();
+      rooms = snapshot.rooms();
+      size = rooms.size();
+      ids = new long[size];
+      capacities = new int[size];
+      prices = new double[size];
+      types = new int[size];
+      amenityMasks = new long[size];
+      bookable = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        RoomSummaryDto room = rooms.get(i);
+        ids[i] = room.getId();
+        capacities[i] = room.getCapacity() != null ? room.getCapacity() : 0;
+        prices[i] = room.getPrice() != null ? room.getPrice() : 0.0;
+        types[i] = room.getType().ordinal();
+        amenityMasks[i] = room.getAmenityMask();
+        bookable[i] = room.getType().isHotelRoom() && room.getStatus().isSellable();
+      }
+      amenityMasksByCode = snapshot.amenityMasks();
+      amenityMasksByCode.forEach(
+          (code, mask) -> {
+            if (mask != 0L) {
+              amenityCodesByBit[Long.numberOfTrailingZeros(mask)] = code;
+            }
+          });
+    }
+  }
+}
@@ -5,19 +5,44 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import master.master.domain.Client;
+import master.master.domain.RoomType;
 import master.master.domain.User;
 import master.master.repository.ClientRepository;
 import master.master.repository.UserRepository;
+import master.master.service.BookingPipeline;
+import master.master.service.FlexibleDateSearchService;
+import master.master.service.GroupBookingService;
+import master.master.service.IdempotencyService;
 import master.master.service.HotelWebsiteService;
+import master.master.service.ReservationHoldService;
+import master.master.service.ReviewStatsService;
+import master.master.service.RoomCalendarService;
+import master.master.service.RoomSearchService;
+import master.master.web.rest.dto.GuestBookReviewDto;
+import master.master.web.rest.dto.GroupBookingDto;
+import master.master.web.rest.dto.ReservationHoldDto;
+import master.master.web.rest.dto.RoomCalendarDto;
+import master.master.web.rest.dto.RoomSearchRequestDto;
+import master.master.web.rest.dto.RoomSearchResultDto;
+import master.master.web.rest.dto.StayWindowDto;
+import master.master.web.rest.dto.TopRatedRoomDto;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * REST controller for client-facing API endpoints. Provides data for the hotel website including
@@ -29,14 +54,38 @@ import org.springframework.web.bind.annotation.RestController;
 public class ClientApiController {
 
   private final HotelWebsiteService hotelWebsiteService;
+  private final RoomSearchService roomSearchService;
+  private final RoomCalendarService roomCalendarService;
+  private final GroupBookingService groupBookingService;
+  private final FlexibleDateSearchService flexibleDateSearchService;
+  private final BookingPipeline bookingPipeline;
+  private final ReservationHoldService reservationHoldService;
+  private final ReviewStatsService reviewStatsService;
+  private final IdempotencyService idempotencyService;
   private final UserRepository userRepository;
   private final ClientRepository clientRepository;
 
   public ClientApiController(
       HotelWebsiteService hotelWebsiteService,
+      RoomSearchService roomSearchService,
+      RoomCalendarService roomCalendarService,
+      GroupBookingService groupBookingService,
+      FlexibleDateSearchService flexibleDateSearchService,
+      BookingPipeline bookingPipeline,
+      ReservationHoldService reservationHoldService,
+      ReviewStatsService reviewStatsService,
+      IdempotencyService idempotencyService,
       UserRepository userRepository,
       ClientRepository clientRepository) {
     this.hotelWebsiteService = hotelWebsiteService;
+    this.roomSearchService = roomSearchService;
+    this.roomCalendarService = roomCalendarService;
+    this.groupBookingService = groupBookingService;
+    this.flexibleDateSearchService = flexibleDateSearchService;
+    this.bookingPipeline = bookingPipeline;
+    this.reservationHoldService = reservationHoldService;
+    this.reviewStatsService = reviewStatsService;
+    this.idempotencyService = idempotencyService;
     this.userRepository = userRepository;
     this.clientRepository = clientRepository;
   }
@@ -61,11 +110,132 @@ public class ClientApiController {
       List<Map<String, Object>> rooms =
           hotelWebsiteService.getAvailableRooms(checkIn, checkOut, adults, children);
       return ResponseEntity.ok(rooms);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     } catch (Exception e) {
       return ResponseEntity.internalServerError().build();
     }
   }
 
+  /**
+   * Find the best stays of a given length starting anywhere within the next days, e.g. the cheapest
+   * 3-night stays for 2 adults in the next 60 days.
+   *
+   * @param nights Length of the stay
+   * @param from First possible check-in date, today by default
+   * @param horizon Number of possible check-in dates
+   * @param adults Number of adults
+   * @param children Number of children
+   * @param limit Maximum number of stays to return
+   * @param sort CHEAPEST (default) or EARLIEST
+   * @return Available stays, best first
+   */
+  @GetMapping("/rooms/flexible")
+  public ResponseEntity<List<StayWindowDto>> findFlexibleStays(
+      @RequestParam int nights,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate from,
+      @RequestParam(defaultValue = "60") int horizon,
+      @RequestParam(defaultValue = "2") int adults,
+      @RequestParam(defaultValue = "0") int children,
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestParam(defaultValue = "CHEAPEST") FlexibleDateSearchService.Sort sort) {
+
+    try {
+      LocalDate start = from != null ? from : LocalDate.now();
+      return ResponseEntity.ok(
+          flexibleDateSearchService.search(
+              start, horizon, nights, adults + children, limit, sort));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Find a combination of rooms available together for a group.
+   *
+   * @param checkIn Check-in date
+   * @param checkOut Check-out date
+   * @param guests Size of the group
+   * @param objective CHEAPEST (default) or FEWEST_ROOMS
+   * @return The rooms to book, or 404 if the group cannot be hosted on those dates
+   */
+  @GetMapping("/rooms/group")
+  public ResponseEntity<GroupBookingDto> findGroupRooms(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+      @RequestParam int guests,
+      @RequestParam(defaultValue = "CHEAPEST") GroupBookingService.Objective objective) {
+
+    try {
+      return groupBookingService
+          .findCombination(checkIn, checkOut, guests, objective)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.notFound().build());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Search rooms with optional dates, types, capacity, price and amenity filters. The result also
+   * carries the type, price range and amenity facet counts for refining the search.
+   *
+   * @param criteria Search criteria, all optional
+   * @return Matching rooms and facet counts
+   */
+  @GetMapping("/rooms/search")
+  public ResponseEntity<RoomSearchResultDto> searchRooms(
+      @ModelAttribute RoomSearchRequestDto criteria) {
+
+    try {
+      return ResponseEntity.ok(roomSearchService.search(criteria));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (Exception e) {
+      return ResponseEntity.internalServerError().build();
+    }
+  }
+
+  /**
+   * Get the bookable nights and nightly prices of one room, starting today.
+   *
+   * @param id Room ID
+   * @param days Number of nights to cover, one year by default
+   * @return The room calendar, or 404 if the room is not a hotel room
+   */
+  @GetMapping("/rooms/{id}/calendar")
+  public ResponseEntity<RoomCalendarDto> getRoomCalendar(
+      @PathVariable Long id, @RequestParam(defaultValue = "365") int days) {
+
+    try {
+      return roomCalendarService
+          .forRoom(id, days)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.notFound().build());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
+  /**
+   * Get the bookable nights and nightly prices of every room of a type, starting today.
+   *
+   * @param type Room type
+   * @param days Number of nights to cover, one year by default
+   * @return One calendar per room
+   */
+  @GetMapping("/rooms/calendar")
+  public ResponseEntity<List<RoomCalendarDto>> getRoomTypeCalendar(
+      @RequestParam RoomType type, @RequestParam(defaultValue = "365") int days) {
+
+    try {
+      return ResponseEntity.ok(roomCalendarService.forType(type, days));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
   /**
    * Get all room types for display.
    *
@@ -81,21 +251,42 @@ public class ClientApiController {
     }
   }
 
+  /**
+   * Get the best rated rooms, ranked by their Bayesian average rating so that a couple of reviews
+   * are not enough to top the list. Served from memory.
+   *
+   * @param type Room type to rank, or every hotel room type when absent
+   * @param limit Maximum number of rooms to return
+   * @return Best rated rooms first
+   */
+  @GetMapping("/rooms/top-rated")
+  public ResponseEntity<List<TopRatedRoomDto>> getTopRatedRooms(
+      @RequestParam(required = false) RoomType type,
+      @RequestParam(defaultValue = "3") int limit) {
+    return ResponseEntity.ok(reviewStatsService.topRated(type, Math.min(limit, 20)));
+  }
+
   /**
    * Get validated guest reviews for the "Livret d'Or". Only returns reviews that have been
    * validated by an admin.
    *
-   * @param offset Number of reviews to skip (for pagination)
+   * @param after Cursor of the last review already shown, to get the older ones
+   * @param offset Number of reviews to skip on the first page (older clients, prefer after)
    * @param limit Maximum number of reviews to return
    * @return List of validated reviews
    */
   @GetMapping("/reviews")
-  public ResponseEntity<List<Map<String, Object>>> getValidatedReviews(
-      @RequestParam(defaultValue = "0") int offset, @RequestParam(defaultValue = "6") int limit) {
+  public ResponseEntity<List<GuestBookReviewDto>> getValidatedReviews(
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "0") int offset,
+      @RequestParam(defaultValue = "6") int limit) {
 
     try {
-      List<Map<String, Object>> reviews = hotelWebsiteService.getValidatedReviews(offset, limit);
+      List<GuestBookReviewDto> reviews =
+          hotelWebsiteService.getValidatedReviews(after, offset, limit);
       return ResponseEntity.ok(reviews);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
     } catch (Exception e) {
       return ResponseEntity.internalServerError().build();
     }
@@ -108,11 +299,11 @@ public class ClientApiController {
    * @return List of latest validated reviews
    */
   @GetMapping("/reviews/latest")
-  public ResponseEntity<List<Map<String, Object>>> getLatestReviews(
+  public ResponseEntity<List<GuestBookReviewDto>> getLatestReviews(
       @RequestParam(defaultValue = "6") int limit) {
 
     try {
-      List<Map<String, Object>> reviews = hotelWebsiteService.getLatestValidatedReviews(limit);
+      List<GuestBookReviewDto> reviews = hotelWebsiteService.getLatestValidatedReviews(limit);
       return ResponseEntity.ok(reviews);
     } catch (Exception e) {
       return ResponseEntity.internalServerError().build();
@@ -120,7 +311,53 @@ public class ClientApiController {
   }
 
   /**
-   * Create a reservation request.
+   * Create a reservation at most once per {@code Idempotency-Key}. A retry with the same key and
+   * body gets the first response back without booking again.
+   *
+   * @param idempotencyKey Client-generated unique key of this reservation attempt
+   * @param reservationData Reservation details: roomId, userId, checkIn, checkOut, payNow
+   * @return Reservation confirmation, or 409 with the reason if the room could not be booked.
+   *     Temporary failures (room lock timeout, database error) answer 409 or 503 without
+   *     recording anything, so the client can retry with the same key.
+   */
+  @PostMapping("/reservations")
+  public ResponseEntity<Map<String, Object>> createReservationIdempotently(
+      @RequestHeader("Idempotency-Key") String idempotencyKey,
+      @RequestBody Map<String, Object> reservationData) {
+
+    try {
+      IdempotencyService.Outcome outcome =
+          idempotencyService.execute(
+              idempotencyKey,
+              reservationData,
+              () -> {
+                Map<String, Object> result =
+                    bookingPipeline.bookReservationRequest(reservationData);
+                if (Boolean.TRUE.equals(result.get("retryable"))) {
+                  // Not a final outcome: throwing releases the key instead of storing it
+                  throw new ResponseStatusException(
+                      HttpStatus.SERVICE_UNAVAILABLE, String.valueOf(result.get("message")));
+                }
+                boolean booked = Boolean.TRUE.equals(result.get("success"));
+                HttpStatus status = booked ? HttpStatus.OK : HttpStatus.CONFLICT;
+                return new IdempotencyService.Outcome(status.value(), result);
+              });
+      return ResponseEntity.status(outcome.status()).body(outcome.body());
+    } catch (ResponseStatusException e) {
+      Map<String, Object> body = new HashMap<>();
+      body.put("success", false);
+      body.put("message", e.getReason());
+      return ResponseEntity.status(e.getStatusCode()).body(body);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (Exception e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+  }
+
+  /**
+   * Create a reservation request. Prefer {@code POST /reservations} with an Idempotency-Key: a
+   * repeated GET books again.
    *
    * @param reservationData Reservation details
    * @return Reservation confirmation
@@ -130,13 +367,84 @@ public class ClientApiController {
       @RequestParam Map<String, Object> reservationData) {
 
     try {
-      Map<String, Object> result = hotelWebsiteService.createReservationRequest(reservationData);
+      Map<String, Object> result = bookingPipeline.createReservationRequest(reservationData);
       return ResponseEntity.ok(result);
     } catch (Exception e) {
       return ResponseEntity.badRequest().build();
     }
   }
 
+  /**
+   * Hold a room for a few minutes while the guest completes the checkout. Held nights are hidden
+   * from every availability search until the hold is confirmed, released or expires.
+   *
+   * <p>The hold belongs to the authenticated user; only they can confirm or release it.
+   *
+   * @param roomId Room to hold
+   * @param checkIn Check-in date
+   * @param checkOut Check-out date
+   * @param minutes Lifetime of the hold
+   * @return The hold, or 409 if the room is not free on those nights
+   */
+  @PostMapping("/holds")
+  public ResponseEntity<ReservationHoldDto> holdRoom(
+      @RequestParam Long roomId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+      @RequestParam(defaultValue = "" + ReservationHoldService.DEFAULT_MINUTES) int minutes) {
+
+    try {
+      return reservationHoldService
+          .hold(roomId, currentUserId(), checkIn, checkOut, minutes)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    } catch (ResponseStatusException e) {
+      return ResponseEntity.status(e.getStatusCode()).build();
+    }
+  }
+
+  /**
+   * Turn a hold of the authenticated user into a reservation.
+   *
+   * @param holdId Hold to confirm
+   * @param payNow Whether the guest pays now
+   * @return Reservation confirmation, as for a direct reservation request
+   */
+  @PostMapping("/holds/{holdId}/confirm")
+  public ResponseEntity<Map<String, Object>> confirmHold(
+      @PathVariable Long holdId, @RequestParam(defaultValue = "false") boolean payNow) {
+
+    Long userId;
+    try {
+      userId = currentUserId();
+    } catch (ResponseStatusException e) {
+      return ResponseEntity.status(e.getStatusCode()).build();
+    }
+    Map<String, Object> result = reservationHoldService.confirm(holdId, userId, payNow);
+    return Boolean.TRUE.equals(result.get("success"))
+        ? ResponseEntity.ok(result)
+        : ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+  }
+
+  /**
+   * Give a held room of the authenticated user back.
+   *
+   * @param holdId Hold to release
+   * @return 204, or 404 if the user has no such live hold
+   */
+  @DeleteMapping("/holds/{holdId}")
+  public ResponseEntity<Void> releaseHold(@PathVariable Long holdId) {
+    try {
+      return reservationHoldService.release(holdId, currentUserId())
+          ? ResponseEntity.noContent().build()
+          : ResponseEntity.notFound().build();
+    } catch (ResponseStatusException e) {
+      return ResponseEntity.status(e.getStatusCode()).build();
+    }
+  }
+
   /**
    * Get hotel information and statistics.
    *
@@ -188,4 +496,17 @@ public class ClientApiController {
       return ResponseEntity.internalServerError().build();
     }
   }
+
+  /** Id of the authenticated user, never taken from the request. */
+  private Long currentUserId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthenticated user");
+    }
+    User user = userRepository.findByEmail(authentication.getName());
+    if (user == null) {
+      throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found");
+    }
+    return user.getId();
+  }
 }
@@ -9,11 +9,14 @@ import master.master.repository.ReservationRepository;
 import master.master.repository.UserRepository;
 import master.master.service.ReservationService;
 import master.master.web.rest.dto.ReservationDto;
+import master.master.web.rest.dto.ReservationHistoryItemDto;
+import master.master.web.rest.dto.ReservationHistoryPageDto;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -65,6 +68,31 @@ public class ClientReservationController {
     }
   }
 
+  /**
+   * Get one page of the current client's reservation history, read with its rooms in one query.
+   *
+   * @param scope UPCOMING (default) for stays not yet checked out, soonest first, or PAST, most
+   *     recent first
+   * @param cursor nextCursor of the previous page, omitted for the first page
+   * @param size number of reservations per page
+   */
+  @GetMapping("/me/reservations/history")
+  public ResponseEntity<ReservationHistoryPageDto> getCurrentClientReservationHistory(
+      @RequestParam(defaultValue = "UPCOMING") ReservationService.HistoryScope scope,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "20") int size) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()) {
+      return ResponseEntity.status(401).build();
+    }
+    try {
+      return ResponseEntity.ok(
+          reservationService.findHistory(authentication.getName(), scope, cursor, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+
   /** Convert Reservation to Map for JSON response */
   private Map<String, Object> convertReservationToMap(Reservation reservation) {
     return Map.of(
@@ -84,18 +112,8 @@ public class ClientReservationController {
 
   /** Determine reservation status */
   private String getReservationStatus(Reservation reservation) {
-    if (!Boolean.TRUE.equals(reservation.getPaid())) {
-      return "PENDING_PAYMENT";
-    }
-
-    java.time.LocalDate today = java.time.LocalDate.now();
-    if (reservation.getEndDatetime().toLocalDate().isBefore(today)) {
-      return "COMPLETED";
-    } else if (reservation.getStartDatetime().toLocalDate().isAfter(today)) {
-      return "CONFIRMED";
-    } else {
-      return "ACTIVE";
-    }
+    return ReservationHistoryItemDto.clientStatus(
+        reservation.getReservationStatus(), reservation.getPaid());
   }
 
   /** Get the current authenticated user's ID */
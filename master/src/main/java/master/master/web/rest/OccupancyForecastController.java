@@ -0,0 +1,35 @@
+package master.master.web.rest;
+
+import java.util.List;
+import master.master.domain.RoomType;
+import master.master.service.OccupancyForecastService;
+import master.master.web.rest.dto.OccupancyForecastDto;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Occupancy forecast for hotel management, restricted to administrators.
+ *
+ * <p>GET /api/v1/admin/forecast/occupancy returns, for each hotel room type (or only {@code
+ * type}), the rooms on the books and the expected occupancy of each of the next {@code days}
+ * nights.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/forecast")
+public class OccupancyForecastController {
+
+  private final OccupancyForecastService forecastService;
+
+  public OccupancyForecastController(OccupancyForecastService forecastService) {
+    this.forecastService = forecastService;
+  }
+
+  @GetMapping("/occupancy")
+  public List<OccupancyForecastDto> getOccupancy(
+      @RequestParam(required = false) RoomType type,
+      @RequestParam(defaultValue = "" + OccupancyForecastService.HORIZON_DAYS) int days) {
+    return forecastService.forecast(type, days);
+  }
+}
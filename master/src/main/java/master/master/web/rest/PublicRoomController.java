@@ -2,13 +2,20 @@ package master.master.web.rest;
 
 import java.util.List;
 import java.util.Optional;
-import master.master.domain.Room;
 import master.master.domain.RoomType;
 import master.master.repository.RoomRepository;
+import master.master.service.RoomCatalogService;
+import master.master.web.rest.dto.RoomPageDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import master.master.web.rest.dto.RoomViewDto;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Public REST controller for room information accessible to clients.
@@ -17,6 +24,8 @@ import org.springframework.web.bind.annotation.RestController;
  *
  * <ul>
  *   <li><b>GET /api/public/rooms</b>: List all available rooms.
+ *   <li><b>GET /api/public/rooms?size=...&amp;after=...</b>: List rooms a page at a time.
+ *   <li><b>GET /api/public/rooms/amenities?codes=...</b>: List rooms having all given amenities.
  *   <li><b>GET /api/public/rooms/{id}</b>: Get details of a specific room.
  * </ul>
  */
@@ -25,19 +34,40 @@ import org.springframework.web.bind.annotation.RestController;
 public class PublicRoomController {
 
   private final RoomRepository roomRepository;
+  private final RoomCatalogService roomCatalogService;
 
-  public PublicRoomController(RoomRepository roomRepository) {
+  public PublicRoomController(
+      RoomRepository roomRepository, RoomCatalogService roomCatalogService) {
     this.roomRepository = roomRepository;
+    this.roomCatalogService = roomCatalogService;
   }
 
   /**
-   * Get all available rooms for public viewing
+   * Get all available rooms for public viewing. Served from the in-memory catalog snapshot with a
+   * strong ETag; a matching {@code If-None-Match} gets an empty 304 response.
    *
-   * @return List of all rooms
+   * @return JSON array of all rooms
    */
   @GetMapping
-  public List<Room> getAllRooms() {
-    return roomRepository.findAll();
+  public ResponseEntity<byte[]> getAllRooms(WebRequest request) {
+    RoomCatalogService.Snapshot catalog = roomCatalogService.current();
+    if (request.checkNotModified(catalog.etag())) {
+      return null;
+    }
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(catalog.json());
+  }
+
+  /**
+   * Get rooms a page at a time, ordered by room number.
+   *
+   * @param after Room number of the last room already received, omitted for the first page
+   * @param size Number of rooms per page
+   * @return The page, with the cursor of the next one
+   */
+  @GetMapping(params = "size")
+  public RoomPageDto getRoomPage(
+      @RequestParam(required = false) String after, @RequestParam int size) {
+    return roomCatalogService.page(after, size);
   }
 
   /**
@@ -47,15 +77,26 @@ public class PublicRoomController {
    * @return List of rooms matching the type
    */
   @GetMapping("/type/{type}")
-  public List<Room> getRoomsByType(@PathVariable String type) {
+  public List<RoomViewDto> getRoomsByType(@PathVariable String type) {
     try {
       RoomType roomType = RoomType.valueOf(type.toUpperCase());
-      return roomRepository.findByTypeOrderByNumber(roomType);
+      return roomRepository.findViewsByType(roomType);
     } catch (IllegalArgumentException e) {
       return List.of(); // Return empty list for invalid type
     }
   }
 
+  /**
+   * Get rooms offering every requested amenity, e.g. {@code ?codes=WIFI,BALCONY,MINIBAR}
+   *
+   * @param codes Amenity codes that must all be present
+   * @return List of matching rooms, empty if a code is unknown
+   */
+  @GetMapping("/amenities")
+  public List<RoomSummaryDto> getRoomsByAmenities(@RequestParam List<String> codes) {
+    return roomCatalogService.findByAmenities(codes);
+  }
+
   /**
    * Get room details by ID
    *
@@ -63,8 +104,8 @@ public class PublicRoomController {
    * @return Room details or empty if not found
    */
   @GetMapping("/{id}")
-  public Optional<Room> getRoomById(@PathVariable Long id) {
-    return roomRepository.findById(id);
+  public Optional<RoomViewDto> getRoomById(@PathVariable Long id) {
+    return roomRepository.findViewById(id);
   }
 
   /**
@@ -74,7 +115,7 @@ public class PublicRoomController {
    * @return List of rooms with at least the specified capacity
    */
   @GetMapping("/capacity/{minCapacity}")
-  public List<Room> getRoomsByCapacity(@PathVariable Integer minCapacity) {
-    return roomRepository.findByCapacityGreaterThanEqualOrderByCapacityAsc(minCapacity);
+  public List<RoomViewDto> getRoomsByCapacity(@PathVariable Integer minCapacity) {
+    return roomRepository.findViewsByCapacityAtLeast(minCapacity.shortValue());
   }
 }
@@ -2,6 +2,7 @@ package master.master.web.rest;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import master.master.service.BookingPipeline;
 import master.master.service.ReservationService;
 import master.master.web.rest.dto.ReservationDto;
 import org.springframework.http.HttpStatus;
@@ -12,9 +13,11 @@ import org.springframework.web.bind.annotation.*;
 public class ReservationController {
 
   private final ReservationService service;
+  private final BookingPipeline bookingPipeline;
 
-  public ReservationController(ReservationService service) {
+  public ReservationController(ReservationService service, BookingPipeline bookingPipeline) {
     this.service = service;
+    this.bookingPipeline = bookingPipeline;
   }
 
   // Endpoint to create a new reservation for a specific user
@@ -22,7 +25,7 @@ public class ReservationController {
   @ResponseStatus(HttpStatus.CREATED)
   public ReservationDto.Info create(
       @PathVariable Long userId, @Valid @RequestBody ReservationDto.Create dto) {
-    return service.create(userId, dto);
+    return bookingPipeline.create(userId, dto);
   }
 
   // Endpoint to retrieve all reservations for a specific user
@@ -0,0 +1,34 @@
+package master.master.web.rest;
+
+import master.master.service.ReservationEventStream;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Live reservation changes for the employee dashboard (EMPLOYEE and ADMIN).
+ *
+ * <p>GET /api/dashboard/reservations/events opens a server-sent-events stream of {@code created},
+ * {@code modified} and {@code cancelled} events. A browser {@code EventSource} reconnects with the
+ * {@code Last-Event-ID} header on its own and receives the events it missed, or a {@code reset}
+ * event when they are no longer known, for instance after a restart.
+ */
+@RestController
+@RequestMapping("/api/dashboard/reservations")
+public class ReservationEventController {
+
+  private final ReservationEventStream eventStream;
+
+  public ReservationEventController(ReservationEventStream eventStream) {
+    this.eventStream = eventStream;
+  }
+
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return eventStream.subscribe(lastEventId);
+  }
+}
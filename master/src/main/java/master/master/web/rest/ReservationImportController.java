@@ -0,0 +1,44 @@
+package master.master.web.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import master.master.service.ReservationImportService;
+import master.master.web.rest.dto.ReservationImportDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Bulk reservation import, restricted to administrators.
+ *
+ * <p>POST /api/v1/admin/reservations/import with a {@code text/csv} body (first line is the
+ * header) or an {@code application/x-ndjson} body (one JSON object per line).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reservations")
+public class ReservationImportController {
+
+  private static final String NDJSON = "application/x-ndjson";
+
+  private final ReservationImportService importService;
+
+  public ReservationImportController(ReservationImportService importService) {
+    this.importService = importService;
+  }
+
+  @PostMapping(
+      value = "/import",
+      consumes = {"text/csv", NDJSON})
+  public ReservationImportDto.Result importReservations(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body)
+      throws IOException {
+    ReservationImportService.Format format =
+        MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON))
+            ? ReservationImportService.Format.NDJSON
+            : ReservationImportService.Format.CSV;
+    return importService.importReservations(body, format);
+  }
+}
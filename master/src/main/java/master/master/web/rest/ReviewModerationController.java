@@ -0,0 +1,51 @@
+package master.master.web.rest;
+
+import java.math.BigDecimal;
+import master.master.service.ReviewModerationService;
+import master.master.web.rest.dto.ReviewModerationPageDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Review moderation list for staff (EMPLOYEE and ADMIN).
+ *
+ * <p>GET /api/dashboard/reviews/moderation?order=WORST_FIRST|NEWEST&amp;language=...&amp;
+ * profane=...&amp;maxSentiment=...&amp;maxRating=...&amp;keyword=...&amp;after=...&amp;size=...
+ * returns the reviews with their language, sentiment, profanity flag and keywords.
+ */
+@RestController
+@RequestMapping("/api/dashboard/reviews")
+public class ReviewModerationController {
+
+  private final ReviewModerationService reviewModerationService;
+
+  public ReviewModerationController(ReviewModerationService reviewModerationService) {
+    this.reviewModerationService = reviewModerationService;
+  }
+
+  @GetMapping("/moderation")
+  public ResponseEntity<ReviewModerationPageDto> list(
+      @RequestParam(defaultValue = "WORST_FIRST") ReviewModerationService.Order order,
+      @RequestParam(required = false) String language,
+      @RequestParam(required = false) Boolean profane,
+      @RequestParam(required = false) BigDecimal maxSentiment,
+      @RequestParam(required = false) Short maxRating,
+      @RequestParam(required = false) String keyword,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "20") int size) {
+    try {
+      return ResponseEntity.ok(
+          reviewModerationService.list(
+              new ReviewModerationService.Filter(
+                  language, profane, maxSentiment, maxRating, keyword),
+              order,
+              after,
+              size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
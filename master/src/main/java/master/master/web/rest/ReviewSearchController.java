@@ -0,0 +1,39 @@
+package master.master.web.rest;
+
+import master.master.service.ReviewSearchService;
+import master.master.web.rest.dto.ReviewSearchPageDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Review search for staff (EMPLOYEE and ADMIN).
+ *
+ * <p>GET /api/dashboard/reviews/search?q=...&amp;maxRating=...&amp;after=...&amp;size=... returns
+ * the reviews containing every word of {@code q}, most relevant first, with highlighted excerpts.
+ */
+@RestController
+@RequestMapping("/api/dashboard/reviews")
+public class ReviewSearchController {
+
+  private final ReviewSearchService reviewSearchService;
+
+  public ReviewSearchController(ReviewSearchService reviewSearchService) {
+    this.reviewSearchService = reviewSearchService;
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity<ReviewSearchPageDto> search(
+      @RequestParam("q") String text,
+      @RequestParam(required = false) Short maxRating,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "20") int size) {
+    try {
+      return ResponseEntity.ok(reviewSearchService.search(text, maxRating, after, size));
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.badRequest().build();
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package master.master.web.rest;
+
+import java.util.List;
+import java.util.Map;
+import master.master.domain.RoomType;
+import master.master.service.ReviewStatsService;
+import master.master.web.rest.dto.ReviewStatsOverviewDto;
+import master.master.web.rest.dto.RoomReviewStatsDto;
+import master.master.web.rest.dto.TopRatedRoomDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Review statistics for the staff dashboards (EMPLOYEE and ADMIN), served from memory.
+ *
+ * <p>GET /api/dashboard/reviews/stats returns the hotel-wide and per room type histograms,
+ * GET /api/dashboard/reviews/stats/rooms/{roomId} those of one room, and
+ * GET /api/dashboard/reviews/top-rated[?type=...], /top-rated/by-type and /most-reviewed the room
+ * rankings. Top-rated rooms are ranked by their Bayesian average against the hotel mean.
+ */
+@RestController
+@RequestMapping("/api/dashboard/reviews")
+public class ReviewStatsController {
+
+  private static final int MAX_LIMIT = 100;
+
+  private final ReviewStatsService reviewStatsService;
+
+  public ReviewStatsController(ReviewStatsService reviewStatsService) {
+    this.reviewStatsService = reviewStatsService;
+  }
+
+  @GetMapping("/stats")
+  public ResponseEntity<ReviewStatsOverviewDto> overview() {
+    return ResponseEntity.ok(reviewStatsService.overview());
+  }
+
+  @GetMapping("/stats/rooms/{roomId}")
+  public ResponseEntity<RoomReviewStatsDto> room(@PathVariable Long roomId) {
+    return ResponseEntity.ok(reviewStatsService.forRoom(roomId));
+  }
+
+  @GetMapping("/top-rated")
+  public ResponseEntity<List<TopRatedRoomDto>> topRated(
+      @RequestParam(required = false) RoomType type,
+      @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(reviewStatsService.topRated(type, Math.min(limit, MAX_LIMIT)));
+  }
+
+  @GetMapping("/top-rated/by-type")
+  public ResponseEntity<Map<RoomType, List<TopRatedRoomDto>>> topRatedByType(
+      @RequestParam(defaultValue = "5") int limit) {
+    return ResponseEntity.ok(reviewStatsService.topRatedByType(Math.min(limit, MAX_LIMIT)));
+  }
+
+  @GetMapping("/most-reviewed")
+  public ResponseEntity<List<TopRatedRoomDto>> mostReviewed(
+      @RequestParam(defaultValue = "10") int limit) {
+    return ResponseEntity.ok(reviewStatsService.mostReviewed(Math.min(limit, MAX_LIMIT)));
+  }
+}
@@ -0,0 +1,41 @@
+package master.master.web.rest;
+
+import master.master.service.RoomAssignmentOptimizer;
+import master.master.web.rest.dto.RoomAssignmentDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Room assignment optimization, restricted to administrators.
+ *
+ * <p>POST /api/v1/admin/room-assignment/optimize runs the optimizer now ({@code dryRun=true} only
+ * reports what it would do). PUT /api/v1/admin/room-assignment/reservations/{id}/lock pins a
+ * reservation to its room ({@code locked=false} releases it).
+ */
+@RestController
+@RequestMapping("/api/v1/admin/room-assignment")
+public class RoomAssignmentController {
+
+  private final RoomAssignmentOptimizer optimizer;
+
+  public RoomAssignmentController(RoomAssignmentOptimizer optimizer) {
+    this.optimizer = optimizer;
+  }
+
+  @PostMapping("/optimize")
+  public RoomAssignmentDto.Report optimize(@RequestParam(defaultValue = "false") boolean dryRun) {
+    return optimizer.optimize(dryRun);
+  }
+
+  @PutMapping("/reservations/{id}/lock")
+  public ResponseEntity<Void> lockRoom(
+      @PathVariable Long id, @RequestParam(defaultValue = "true") boolean locked) {
+    optimizer.setRoomLocked(id, locked);
+    return ResponseEntity.noContent().build();
+  }
+}
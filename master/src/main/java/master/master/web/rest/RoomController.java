@@ -5,10 +5,15 @@ import master.master.domain.Room;
 import master.master.domain.RoomStatus;
 import master.master.domain.RoomType;
 import master.master.repository.RoomRepository;
+import master.master.service.RoomCatalogService;
 import master.master.web.rest.dto.RoomDto;
+import master.master.web.rest.dto.RoomPageDto;
+import master.master.web.rest.dto.RoomViewDto;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for managing Room entities.
@@ -19,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
  *
  * Endpoints:
  *   GET    /api/v1/rooms       – List all rooms.
+ *   GET    /api/v1/rooms?size= – List rooms a page at a time, by room number.
  *   GET    /api/v1/rooms/{id}  – Retrieve a specific room by ID.
  *   POST   /api/v1/rooms       – Create a new room.
  *   PUT    /api/v1/rooms/{id}  – Update an existing room by ID.
@@ -31,20 +37,43 @@ import org.springframework.web.bind.annotation.*;
 public class RoomController {
 
   private final RoomRepository roomRepository;
+  private final RoomCatalogService roomCatalogService;
 
-  public RoomController(RoomRepository roomRepository) {
+  public RoomController(RoomRepository roomRepository, RoomCatalogService roomCatalogService) {
     this.roomRepository = roomRepository;
+    this.roomCatalogService = roomCatalogService;
   }
 
+  /**
+   * List all rooms from the catalog snapshot. Answers 304 when {@code If-None-Match} carries the
+   * current ETag.
+   */
   @GetMapping
-  public List<Room> listAll() {
-    return roomRepository.findAll();
+  public ResponseEntity<byte[]> listAll(WebRequest request) {
+    RoomCatalogService.Snapshot catalog = roomCatalogService.current();
+    if (request.checkNotModified(catalog.etag())) {
+      return null;
+    }
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(catalog.json());
+  }
+
+  /**
+   * List rooms a page at a time, ordered by room number.
+   *
+   * @param after room number of the last room already received, omitted for the first page
+   * @param size number of rooms per page
+   * @return the page, with the cursor of the next one
+   */
+  @GetMapping(params = "size")
+  public RoomPageDto listPage(
+      @RequestParam(required = false) String after, @RequestParam int size) {
+    return roomCatalogService.page(after, size);
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<Room> getOne(@PathVariable Long id) {
+  public ResponseEntity<RoomViewDto> getOne(@PathVariable Long id) {
     return roomRepository
-        .findById(id)
+        .findViewById(id)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
@@ -85,7 +114,9 @@ public class RoomController {
     room.setUpdatedAt(
         dto.getUpdated_at() != null ? dto.getUpdated_at() : java.time.LocalDateTime.now());
     room.setAmenities(dto.getAmenities() != null ? dto.getAmenities() : List.of());
-    return roomRepository.save(room);
+    Room saved = roomRepository.save(room);
+    roomCatalogService.rebuild();
+    return saved;
   }
 
   /**
@@ -111,7 +142,9 @@ public class RoomController {
               existing.setHasWhiteboard(dto.isHas_whiteboard());
               existing.setHasVideoConference(dto.isHas_video_conference());
               existing.setHasAirConditioning(dto.isHas_air_conditionning());
-              return ResponseEntity.ok(roomRepository.save(existing));
+              Room saved = roomRepository.save(existing);
+              roomCatalogService.rebuild();
+              return ResponseEntity.ok(saved);
             })
         .orElse(ResponseEntity.notFound().build());
   }
@@ -129,6 +162,7 @@ public class RoomController {
         .map(
             r -> {
               roomRepository.delete(r);
+              roomCatalogService.rebuild();
               return ResponseEntity.ok().<Void>build();
             })
         .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,21 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/** A combination of rooms available together that can host a whole group. */
+@Data
+@Builder
+public class GroupBookingDto {
+  private LocalDate checkIn;
+  private LocalDate checkOut;
+  private int nights;
+  private int guests;
+  private int totalCapacity;
+  private double pricePerNight;
+  private double totalPrice;
+  private Integer floorNumber; // Null unless every room is on that floor
+  private List<RoomSummaryDto> rooms;
+}
@@ -0,0 +1,54 @@
+package master.master.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * One verified review of the Livret d'Or, selected with its room and author in a single JPQL
+ * constructor expression.
+ */
+@Data
+public class GuestBookReviewDto {
+  private final Long id;
+  private final Short rating;
+  private final String comment;
+  private final LocalDate reviewDate;
+  private final LocalDateTime createdAt;
+
+  @JsonProperty("isAnonymous")
+  private final boolean anonymous;
+
+  private final int helpfulCount = 0;
+  private final String roomNumber;
+  private final String roomName;
+  private final String authorName; // First name only, for privacy
+
+  /** Keyset position of this review; pass it as {@code after} to read the older ones. */
+  private final String cursor;
+
+  public GuestBookReviewDto(
+      Long id,
+      Short rating,
+      String comment,
+      LocalDateTime createdAt,
+      Boolean anonymous,
+      String roomNumber,
+      String authorFirstName) {
+    this.id = id;
+    this.rating = rating;
+    this.comment = comment;
+    this.reviewDate = createdAt.toLocalDate();
+    this.createdAt = createdAt;
+    this.anonymous = Boolean.TRUE.equals(anonymous);
+    this.roomNumber = roomNumber;
+    this.roomName = "Room " + roomNumber;
+    if (this.anonymous) {
+      this.authorName = "Client anonyme";
+    } else {
+      this.authorName = authorFirstName != null ? authorFirstName : "Client";
+    }
+    this.cursor = createdAt + "_" + id;
+  }
+}
@@ -0,0 +1,22 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import lombok.Builder;
+import lombok.Data;
+import master.master.domain.RoomType;
+
+/**
+ * Occupancy forecast of one room type, one array entry per night from {@code from}. {@code
+ * expectedRooms} adds the bookings still expected to arrive, estimated from past pickup at the
+ * same lead time.
+ */
+@Data
+@Builder
+public class OccupancyForecastDto {
+  private RoomType type;
+  private int rooms; // Sellable rooms of this type
+  private LocalDate from;
+  private int[] onTheBooks;
+  private double[] expectedRooms;
+  private double[] expectedOccupancy; // Expected rooms over sellable rooms, 0 to 1
+}
@@ -0,0 +1,76 @@
+package master.master.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import lombok.Data;
+import master.master.domain.ReservationStatus;
+import master.master.domain.RoomType;
+
+/**
+ * One stay of a client's reservation history, selected with its room in a single JPQL constructor
+ * expression.
+ */
+@Data
+public class ReservationHistoryItemDto {
+  private final Long reservationId;
+  private final Long roomId;
+  private final String roomNumber;
+  private final String roomName;
+  private final RoomType roomType;
+  private final LocalDate checkIn;
+  private final LocalDate checkOut;
+  private final long nights;
+  private final boolean paid;
+  private final BigDecimal totalAmount;
+  private final String status; // Client-facing status, see clientStatus
+  private final LocalDateTime createdAt;
+
+  /** Keyset position of this row, with its id. */
+  @JsonIgnore private final LocalDateTime startDatetime;
+
+  public ReservationHistoryItemDto(
+      Long reservationId,
+      LocalDateTime startDatetime,
+      LocalDateTime endDatetime,
+      ReservationStatus reservationStatus,
+      Boolean paid,
+      BigDecimal totalAmount,
+      LocalDateTime createdAt,
+      Long roomId,
+      String roomNumber,
+      RoomType roomType) {
+    this.reservationId = reservationId;
+    this.roomId = roomId;
+    this.roomNumber = roomNumber;
+    this.roomName = "Room " + roomNumber;
+    this.roomType = roomType;
+    this.checkIn = startDatetime.toLocalDate();
+    this.checkOut = endDatetime.toLocalDate();
+    this.nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+    this.paid = Boolean.TRUE.equals(paid);
+    this.totalAmount = totalAmount;
+    this.status = clientStatus(reservationStatus, paid);
+    this.createdAt = createdAt;
+    this.startDatetime = startDatetime;
+  }
+
+  /**
+   * Status shown to clients: PENDING_PAYMENT until paid, then CONFIRMED, ACTIVE during the stay
+   * and COMPLETED after it, as advanced by the reservation lifecycle scheduler. A paid reservation
+   * that was cancelled is CANCELLED.
+   */
+  public static String clientStatus(ReservationStatus status, Boolean paid) {
+    if (!Boolean.TRUE.equals(paid)) {
+      return "PENDING_PAYMENT";
+    }
+    return switch (status) {
+      case PENDING, CONFIRMED -> "CONFIRMED";
+      case CHECKED_IN -> "ACTIVE";
+      case COMPLETED, NO_SHOW -> "COMPLETED";
+      case CANCELLED -> "CANCELLED";
+    };
+  }
+}
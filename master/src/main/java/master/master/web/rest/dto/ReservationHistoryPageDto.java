@@ -0,0 +1,16 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of a client's reservation history. Pass {@code nextCursor} back as {@code cursor} to
+ * get the next page; it is null on the last page.
+ */
+@Data
+@Builder
+public class ReservationHistoryPageDto {
+  private List<ReservationHistoryItemDto> reservations;
+  private String nextCursor;
+}
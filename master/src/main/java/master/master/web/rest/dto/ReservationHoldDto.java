@@ -0,0 +1,18 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Data;
+
+/** A room kept aside for a guest while they complete the checkout. */
+@Data
+@Builder
+public class ReservationHoldDto {
+  private Long holdId;
+  private Long roomId;
+  private Long userId;
+  private LocalDate checkIn;
+  private LocalDate checkOut;
+  private LocalDateTime expiresAt;
+}
@@ -0,0 +1,41 @@
+package master.master.web.rest.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import master.master.domain.PaymentMethod;
+import master.master.domain.ReservationStatus;
+
+public class ReservationImportDto {
+
+  /**
+   * One reservation of an import file: a CSV line (header names match the field names) or an
+   * NDJSON object. Either {@code roomId} or {@code roomNumber} identifies the room.
+   */
+  @Data
+  @NoArgsConstructor
+  public static class Row {
+    private Long userId;
+    private Long roomId;
+    private String roomNumber;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private ReservationStatus status; // CONFIRMED when absent
+    private BigDecimal totalAmount; // Base price times nights when absent
+    private PaymentMethod paymentMethod;
+    private Boolean paid;
+  }
+
+  @Data
+  @Builder
+  public static class Result {
+    private int read;
+    private int imported;
+    private int rejected;
+    private long elapsedMillis;
+    private List<String> errors; // First errors only, "line N: reason"
+  }
+}
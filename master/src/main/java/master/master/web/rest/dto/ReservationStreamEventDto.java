@@ -0,0 +1,28 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Data;
+import master.master.domain.ReservationStatus;
+
+/** One reservation change pushed to the employee dashboard over server-sent events. */
+@Data
+@Builder
+public class ReservationStreamEventDto {
+
+  public enum Kind {
+    CREATED,
+    MODIFIED,
+    CANCELLED
+  }
+
+  private long id;
+  private Kind kind;
+  private Long reservationId;
+  private Long roomId;
+  private LocalDate checkIn;
+  private LocalDate checkOut;
+  private ReservationStatus status;
+  private LocalDateTime occurredAt;
+}
@@ -0,0 +1,27 @@
+package master.master.web.rest.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One review on the moderation screen with its enrichment signals. The signals are null until
+ * the review has been enriched.
+ */
+@Data
+@Builder
+public class ReviewModerationItemDto {
+  private Long id;
+  private Short rating;
+  private String roomNumber;
+  private String comment;
+  private LocalDateTime createdAt;
+  private boolean verified;
+  private boolean answered; // The hotel already responded
+  private String language; // ISO 639-1 code, null when it could not be told
+  private BigDecimal sentimentScore; // From -1 (negative) to 1 (positive)
+  private Boolean profane;
+  private List<String> keywords;
+}
@@ -0,0 +1,16 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of the moderation list. Pass {@code nextCursor} back as {@code after}, with the same
+ * sort and filters, to get the next page; it is null on the last page.
+ */
+@Data
+@Builder
+public class ReviewModerationPageDto {
+  private List<ReviewModerationItemDto> reviews;
+  private String nextCursor;
+}
@@ -0,0 +1,19 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Data;
+
+/** One review matching a staff full-text search, with its highlighted excerpt. */
+@Data
+@Builder
+public class ReviewSearchHitDto {
+  private Long id;
+  private Short rating;
+  private String roomNumber;
+  private LocalDateTime createdAt;
+  private boolean verified;
+  private boolean answered; // The hotel already responded
+  private double rank;
+  private String snippet; // HTML-escaped excerpt, matched words wrapped in <mark>
+}
@@ -0,0 +1,16 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of review search results, most relevant first. Pass {@code nextCursor} back as {@code
+ * after} to get the next page; it is null on the last page.
+ */
+@Data
+@Builder
+public class ReviewSearchPageDto {
+  private List<ReviewSearchHitDto> hits;
+  private String nextCursor;
+}
@@ -0,0 +1,26 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import master.master.domain.RoomType;
+
+/** Hotel-wide review statistics, with the same figures for each room type. */
+@Data
+@Builder
+public class ReviewStatsOverviewDto {
+  private int totalReviews;
+  private int verifiedReviews;
+  private double averageRating;
+  private int[] ratingDistribution; // Array of 5 elements for 1-5 star counts
+  private List<TypeStats> types;
+
+  @Data
+  @Builder
+  public static class TypeStats {
+    private RoomType type;
+    private int totalReviews;
+    private double averageRating;
+    private int[] ratingDistribution;
+  }
+}
@@ -0,0 +1,38 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import master.master.domain.RoomType;
+
+public class RoomAssignmentDto {
+
+  /** Outcome of one optimizer run over every hotel room type. */
+  @Data
+  @Builder
+  public static class Report {
+    private boolean dryRun;
+    private int horizonDays;
+    private int reservations; // Movable reservations considered
+    private int moved;
+    private int orphanNightsBefore;
+    private int orphanNightsAfter;
+    private int recoveredRoomNights;
+    private long elapsedMillis;
+    private List<TypeResult> types;
+  }
+
+  /** Plan of one room type; orphan nights are free runs too short to sell between two stays. */
+  @Data
+  @Builder
+  public static class TypeResult {
+    private RoomType type;
+    private int rooms;
+    private int reservations;
+    private int moved;
+    private int orphanNightsBefore;
+    private int orphanNightsAfter;
+    private boolean applied;
+    private String note; // Why the plan was not applied, if it was not
+  }
+}
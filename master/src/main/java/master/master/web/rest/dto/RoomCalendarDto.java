@@ -0,0 +1,20 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Bookable status and nightly price of one room for consecutive nights. Index {@code i} of both
+ * arrays is the night of {@code from + i days}.
+ */
+@Data
+@Builder
+public class RoomCalendarDto {
+  private Long roomId;
+  private String roomNumber;
+  private LocalDate from;
+  private int days;
+  private boolean[] bookable;
+  private double[] prices;
+}
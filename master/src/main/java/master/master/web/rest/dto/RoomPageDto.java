@@ -0,0 +1,16 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of rooms ordered by room number. Pass {@code nextAfter} back as {@code after} to get the
+ * next page; it is null on the last page.
+ */
+@Data
+@Builder
+public class RoomPageDto {
+  private List<RoomViewDto> rooms;
+  private String nextAfter;
+}
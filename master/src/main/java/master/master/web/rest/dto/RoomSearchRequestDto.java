@@ -0,0 +1,26 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import master.master.domain.RoomType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+/** Criteria of the faceted room search. Every criterion is optional. */
+@Data
+@NoArgsConstructor
+public class RoomSearchRequestDto {
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate checkIn;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate checkOut;
+
+  private List<RoomType> types;
+  private Integer minCapacity;
+  private Integer maxCapacity;
+  private Double minPrice;
+  private Double maxPrice;
+  private List<String> amenities; // Amenity codes, all required
+}
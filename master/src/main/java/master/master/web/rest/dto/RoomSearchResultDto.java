@@ -0,0 +1,21 @@
+package master.master.web.rest.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Rooms matching a faceted search, with facet counts. Type and price facets count the rooms that
+ * would match if only that criterion changed; amenity facets count matching rooms having each
+ * amenity.
+ */
+@Data
+@Builder
+public class RoomSearchResultDto {
+  private int total;
+  private List<RoomSummaryDto> rooms;
+  private Map<String, Integer> typeFacets; // Key: RoomType name
+  private Map<String, Integer> priceFacets; // Key: price bucket label, e.g. "100-200"
+  private Map<String, Integer> amenityFacets; // Key: amenity code
+}
@@ -0,0 +1,37 @@
+package master.master.web.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+import master.master.domain.RoomStatus;
+import master.master.domain.RoomType;
+
+/** Room as exposed by the room listing endpoints, detached from the JPA entity. */
+@Data
+@Builder
+public class RoomSummaryDto {
+  private Long id;
+  private String number;
+  private String name;
+  private RoomType type;
+  private Integer capacity;
+  private String description;
+  private Double price;
+  private RoomStatus status;
+  private String imageUrl;
+  private Integer floorNumber;
+  private Boolean hasProjector;
+  private Boolean hasWhiteboard;
+  private Boolean hasVideoConference;
+  private Boolean hasAirConditioning;
+  private List<String> amenities;
+
+  /** OR of the amenity bits, used for in-memory filtering only. */
+  @JsonIgnore private long amenityMask;
+
+  /** Whether this room has every amenity of {@code requiredMask}. */
+  public boolean hasAllAmenities(long requiredMask) {
+    return (amenityMask & requiredMask) == requiredMask;
+  }
+}
@@ -0,0 +1,49 @@
+package master.master.web.rest.dto;
+
+import java.math.BigDecimal;
+import lombok.Data;
+import master.master.domain.RoomStatus;
+import master.master.domain.RoomType;
+
+/**
+ * Read-only view of a room, selected column by column with a JPQL constructor expression so that
+ * none of the lazy room associations is ever loaded. Same JSON shape as the {@code Room} entity
+ * used to have, without the collections.
+ */
+@Data
+public class RoomViewDto {
+  private final Long id;
+  private final String number;
+  private final String name;
+  private final RoomType type;
+  private final Integer capacity;
+  private final String description;
+  private final Double price;
+  private final RoomStatus status;
+  private final String imageUrl;
+  private final Integer floorNumber = null;
+  private final Boolean hasProjector = false;
+  private final Boolean hasWhiteboard = false;
+  private final Boolean hasVideoConference = false;
+  private final Boolean hasAirConditioning = true;
+
+  public RoomViewDto(
+      Long id,
+      String roomNumber,
+      RoomType roomType,
+      Short capacity,
+      String description,
+      BigDecimal basePrice,
+      RoomStatus roomStatus,
+      String imageUrl) {
+    this.id = id;
+    this.number = roomNumber;
+    this.name = "Room " + roomNumber;
+    this.type = roomType;
+    this.capacity = capacity != null ? capacity.intValue() : null;
+    this.description = description;
+    this.price = basePrice != null ? basePrice.doubleValue() : null;
+    this.status = roomStatus;
+    this.imageUrl = imageUrl;
+  }
+}
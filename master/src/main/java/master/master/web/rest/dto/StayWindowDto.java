@@ -0,0 +1,16 @@
+package master.master.web.rest.dto;
+
+import java.time.LocalDate;
+import lombok.Builder;
+import lombok.Data;
+
+/** One room free for a whole stay found by the flexible-dates search. */
+@Data
+@Builder
+public class StayWindowDto {
+  private LocalDate checkIn;
+  private LocalDate checkOut;
+  private int nights;
+  private double totalPrice;
+  private RoomSummaryDto room;
+}
@@ -2,12 +2,15 @@ package master.master.web.rest.dto;
 
 import lombok.Builder;
 import lombok.Data;
+import master.master.domain.RoomType;
 
 @Data
 @Builder
 public class TopRatedRoomDto {
   private Long roomId;
   private String roomName;
+  private RoomType type;
   private double averageRating;
+  private double score; // Bayesian average against the hotel mean, used for the ranking
   private int reviewCount;
 }
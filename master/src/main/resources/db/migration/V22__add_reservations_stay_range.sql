@@ -0,0 +1,19 @@
+-- Nights occupied by a reservation, as a half-open range [check-in day, check-out day).
+-- A same-day stay still occupies its first night.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE reservations
+    ADD COLUMN stay_range TSRANGE
+        GENERATED ALWAYS AS (
+            tsrange(
+                start_datetime::date::timestamp,
+                GREATEST(end_datetime::date, start_datetime::date + 1)::timestamp,
+                '[)'
+            )
+        ) STORED;
+
+-- No two live reservations may share a night of the same room.
+ALTER TABLE reservations
+    ADD CONSTRAINT ex_reservation_room_stay
+        EXCLUDE USING gist (id_room WITH =, stay_range WITH &&)
+        WHERE (reservation_status <> 'CANCELLED');
@@ -0,0 +1,114 @@
+-- Per-room review aggregate, kept in step with rooms_reviews by triggers so that
+-- room listings read ratings with one bulk query instead of two queries per room.
+CREATE TABLE room_rating_stats (
+    id_room BIGINT PRIMARY KEY,
+    rating_count INTEGER NOT NULL DEFAULT 0,
+    rating_sum INTEGER NOT NULL DEFAULT 0,
+    rating_1_count INTEGER NOT NULL DEFAULT 0,
+    rating_2_count INTEGER NOT NULL DEFAULT 0,
+    rating_3_count INTEGER NOT NULL DEFAULT 0,
+    rating_4_count INTEGER NOT NULL DEFAULT 0,
+    rating_5_count INTEGER NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_room_rating_stats_room
+        FOREIGN KEY (id_room)
+        REFERENCES rooms (id_room)
+        ON DELETE CASCADE
+);
+
+INSERT INTO room_rating_stats (
+    id_room, rating_count, rating_sum,
+    rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count)
+SELECT res.id_room,
+       COUNT(*),
+       SUM(rv.rating),
+       COUNT(*) FILTER (WHERE rv.rating = 1),
+       COUNT(*) FILTER (WHERE rv.rating = 2),
+       COUNT(*) FILTER (WHERE rv.rating = 3),
+       COUNT(*) FILTER (WHERE rv.rating = 4),
+       COUNT(*) FILTER (WHERE rv.rating = 5)
+FROM rooms_reviews rv
+JOIN reservations res ON res.id_reservation = rv.id_reservation
+GROUP BY res.id_room;
+
+-- Add (p_delta = 1) or remove (p_delta = -1) one rating from a room's aggregate.
+CREATE FUNCTION apply_room_rating(p_room BIGINT, p_rating SMALLINT, p_delta INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    IF p_room IS NULL OR p_rating IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO room_rating_stats AS s (
+        id_room, rating_count, rating_sum,
+        rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count)
+    VALUES (
+        p_room, p_delta, p_delta * p_rating,
+        CASE WHEN p_rating = 1 THEN p_delta ELSE 0 END,
+        CASE WHEN p_rating = 2 THEN p_delta ELSE 0 END,
+        CASE WHEN p_rating = 3 THEN p_delta ELSE 0 END,
+        CASE WHEN p_rating = 4 THEN p_delta ELSE 0 END,
+        CASE WHEN p_rating = 5 THEN p_delta ELSE 0 END)
+    ON CONFLICT (id_room) DO UPDATE SET
+        rating_count = s.rating_count + EXCLUDED.rating_count,
+        rating_sum = s.rating_sum + EXCLUDED.rating_sum,
+        rating_1_count = s.rating_1_count + EXCLUDED.rating_1_count,
+        rating_2_count = s.rating_2_count + EXCLUDED.rating_2_count,
+        rating_3_count = s.rating_3_count + EXCLUDED.rating_3_count,
+        rating_4_count = s.rating_4_count + EXCLUDED.rating_4_count,
+        rating_5_count = s.rating_5_count + EXCLUDED.rating_5_count;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION trg_rooms_reviews_rating_stats()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- When the parent reservation is being deleted, its BEFORE DELETE trigger already
+    -- removed the rating and the lookup below finds no row.
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM apply_room_rating(
+            (SELECT id_room FROM reservations WHERE id_reservation = OLD.id_reservation),
+            OLD.rating, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM apply_room_rating(
+            (SELECT id_room FROM reservations WHERE id_reservation = NEW.id_reservation),
+            NEW.rating, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER rooms_reviews_rating_stats
+    AFTER INSERT OR DELETE OR UPDATE OF rating, id_reservation ON rooms_reviews
+    FOR EACH ROW EXECUTE FUNCTION trg_rooms_reviews_rating_stats();
+
+-- Reviews follow their reservation: moving or deleting a reservation moves or drops its rating.
+CREATE FUNCTION trg_reservations_rating_stats()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_rating SMALLINT;
+BEGIN
+    SELECT rating INTO v_rating FROM rooms_reviews WHERE id_reservation = OLD.id_reservation;
+    IF v_rating IS NOT NULL THEN
+        PERFORM apply_room_rating(OLD.id_room, v_rating, -1);
+        IF TG_OP = 'UPDATE' THEN
+            PERFORM apply_room_rating(NEW.id_room, v_rating, 1);
+        END IF;
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservations_rating_stats_delete
+    BEFORE DELETE ON reservations
+    FOR EACH ROW EXECUTE FUNCTION trg_reservations_rating_stats();
+
+CREATE TRIGGER reservations_rating_stats_move
+    AFTER UPDATE OF id_room ON reservations
+    FOR EACH ROW
+    WHEN (OLD.id_room IS DISTINCT FROM NEW.id_room)
+    EXECUTE FUNCTION trg_reservations_rating_stats();
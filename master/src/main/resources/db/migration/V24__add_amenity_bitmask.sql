@@ -0,0 +1,68 @@
+-- Every amenity owns one bit of a 64-bit mask; each room stores the OR of its amenities' bits
+-- so that "has all of these amenities" is a single AND instead of one join per amenity.
+ALTER TABLE amenities ADD COLUMN bit_position SMALLINT;
+
+UPDATE amenities a
+SET bit_position = numbered.position
+FROM (
+    SELECT id_amenity, ROW_NUMBER() OVER (ORDER BY id_amenity) - 1 AS position
+    FROM amenities
+) numbered
+WHERE numbered.id_amenity = a.id_amenity;
+
+ALTER TABLE amenities
+    ALTER COLUMN bit_position SET NOT NULL,
+    ADD CONSTRAINT uq_amenity_bit_position UNIQUE (bit_position),
+    ADD CONSTRAINT chk_amenity_bit_position CHECK (bit_position BETWEEN 0 AND 63);
+
+-- New amenities take the lowest free bit.
+CREATE FUNCTION trg_amenities_bit_position()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.bit_position IS NULL THEN
+        SELECT MIN(candidate) INTO NEW.bit_position
+        FROM generate_series(0, 63) AS candidate
+        WHERE candidate NOT IN (SELECT bit_position FROM amenities);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER amenities_bit_position
+    BEFORE INSERT ON amenities
+    FOR EACH ROW EXECUTE FUNCTION trg_amenities_bit_position();
+
+ALTER TABLE rooms ADD COLUMN amenity_mask BIGINT NOT NULL DEFAULT 0;
+
+CREATE FUNCTION refresh_room_amenity_mask(p_room BIGINT)
+RETURNS VOID AS $$
+BEGIN
+    UPDATE rooms
+    SET amenity_mask = COALESCE((
+        SELECT bit_or(1::BIGINT << a.bit_position)
+        FROM rooms_amenities ra
+        JOIN amenities a ON a.id_amenity = ra.id_amenity
+        WHERE ra.id_room = p_room
+    ), 0)
+    WHERE id_room = p_room;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT refresh_room_amenity_mask(id_room) FROM rooms;
+
+CREATE FUNCTION trg_rooms_amenities_mask()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM refresh_room_amenity_mask(OLD.id_room);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM refresh_room_amenity_mask(NEW.id_room);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER rooms_amenities_mask
+    AFTER INSERT OR UPDATE OR DELETE ON rooms_amenities
+    FOR EACH ROW EXECUTE FUNCTION trg_rooms_amenities_mask();
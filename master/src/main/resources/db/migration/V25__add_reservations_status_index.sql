@@ -0,0 +1,4 @@
+-- Reservation statuses are now advanced by the lifecycle scheduler, so jobs and reports can
+-- select reservations by status instead of recomputing it from the dates.
+CREATE INDEX idx_reservations_status_start
+    ON reservations (reservation_status, start_datetime);
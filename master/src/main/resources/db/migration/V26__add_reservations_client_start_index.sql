@@ -0,0 +1,3 @@
+-- Keyset pages of a client's reservation history walk this index in either direction.
+CREATE INDEX idx_reservations_user_start
+    ON reservations (id_user, start_datetime, id_reservation);
@@ -0,0 +1,15 @@
+-- Reservations pinned to their room (a guest asked for it, keys already handed over...) are
+-- never moved by the room assignment optimizer.
+ALTER TABLE reservations
+    ADD COLUMN is_room_locked BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- The optimizer swaps reservations between rooms in one transaction, which only holds once all
+-- rows are updated. The overlap check stays immediate unless a transaction defers it.
+ALTER TABLE reservations
+    DROP CONSTRAINT ex_reservation_room_stay;
+
+ALTER TABLE reservations
+    ADD CONSTRAINT ex_reservation_room_stay
+        EXCLUDE USING gist (id_room WITH =, stay_range WITH &&)
+        WHERE (reservation_status <> 'CANCELLED')
+        DEFERRABLE INITIALLY IMMEDIATE;
@@ -0,0 +1,5 @@
+-- The Livret d'Or pages through verified reviews newest first by keyset (created_at, id_review).
+-- Unverified reviews are never listed there, so they are left out of the index.
+CREATE INDEX idx_rooms_reviews_verified_created
+    ON rooms_reviews (created_at DESC, id_review DESC)
+    WHERE is_verified;
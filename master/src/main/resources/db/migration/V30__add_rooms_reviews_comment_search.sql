@@ -0,0 +1,9 @@
+-- Full-text search over review comments for staff triage. The 'simple' configuration keeps
+-- every word unstemmed, since guests write in French as well as English; prefix queries
+-- ("clim:*") cover the word variants instead.
+ALTER TABLE rooms_reviews
+    ADD COLUMN comment_tsv TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('simple', COALESCE(comment, ''))) STORED;
+
+CREATE INDEX idx_rooms_reviews_comment_tsv
+    ON rooms_reviews USING GIN (comment_tsv);
@@ -0,0 +1,38 @@
+-- Signals computed from the comment by the asynchronous review enrichment workers, so that
+-- moderation can sort and filter reviews without reading them. enriched_at stays NULL until
+-- a worker processed the current comment; the workers sweep those rows periodically.
+ALTER TABLE rooms_reviews
+    ADD COLUMN language VARCHAR(2),
+    ADD COLUMN sentiment_score NUMERIC(4, 3),
+    ADD COLUMN is_profane BOOLEAN,
+    ADD COLUMN keywords TEXT[],
+    ADD COLUMN enriched_at TIMESTAMP,
+    ADD CONSTRAINT chk_room_review_sentiment
+        CHECK (sentiment_score BETWEEN -1 AND 1);
+
+-- Worst reviews first is the usual moderation order.
+CREATE INDEX idx_rooms_reviews_sentiment
+    ON rooms_reviews (sentiment_score, id_review)
+    WHERE sentiment_score IS NOT NULL;
+
+CREATE INDEX idx_rooms_reviews_keywords
+    ON rooms_reviews USING GIN (keywords);
+
+CREATE INDEX idx_rooms_reviews_not_enriched
+    ON rooms_reviews (id_review)
+    WHERE enriched_at IS NULL;
+
+-- An edited comment must be enriched again, whoever edited it.
+CREATE FUNCTION trg_rooms_reviews_comment_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.enriched_at := NULL;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER rooms_reviews_comment_changed
+    BEFORE UPDATE OF comment ON rooms_reviews
+    FOR EACH ROW
+    WHEN (OLD.comment IS DISTINCT FROM NEW.comment)
+    EXECUTE FUNCTION trg_rooms_reviews_comment_changed();
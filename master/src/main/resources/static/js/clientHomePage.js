@@ -5,13 +5,15 @@
 // Global variables
 let currentRooms = [];
 let currentReviews = [];
-let reviewsOffset = 0;
+let reviewsCursor = null;
+let topRatedRooms = new Map();
 const reviewsLimit = 6;
 
 // Initialize page when DOM is loaded
 document.addEventListener("DOMContentLoaded", function () {
   initializePage();
   loadRooms();
+  loadTopRatedRooms();
   loadReviews();
   setMinDate();
 });
@@ -104,6 +106,31 @@ async function loadRooms() {
   }
 }
 
+// Load the best rated rooms to highlight them on the room cards
+async function loadTopRatedRooms() {
+  try {
+    const response = await fetch("/api/client/rooms/top-rated?limit=3", {
+      method: "GET",
+      headers: {
+        Authorization: `Bearer ${localStorage.getItem("jwtToken")}`,
+        "Content-Type": "application/json",
+      },
+    });
+
+    if (!response.ok) {
+      throw new Error("Failed to load top rated rooms");
+    }
+
+    const rooms = await response.json();
+    topRatedRooms = new Map(rooms.map((room) => [room.roomId, room]));
+    if (currentRooms.length > 0) {
+      displayRooms(currentRooms);
+    }
+  } catch (error) {
+    console.error("Error loading top rated rooms:", error);
+  }
+}
+
 // Search rooms based on criteria
 async function searchRooms() {
   const checkIn = document.getElementById("checkInDate").value;
@@ -125,9 +152,9 @@ async function searchRooms() {
   showLoading("roomsContainer");
 
   try {
-    // For now, we'll filter client-side based on capacity
-    // In the future, this can be enhanced with a proper availability API
-    const response = await fetch("/api/public/rooms", {
+    // The server filters on capacity and on availability for the selected nights
+    const params = new URLSearchParams({ checkIn, checkOut, adults, children });
+    const response = await fetch(`/api/client/rooms?${params}`, {
       method: "GET",
       headers: {
         "Content-Type": "application/json",
@@ -138,14 +165,8 @@ async function searchRooms() {
       throw new Error("Failed to search rooms");
     }
 
-    const allRooms = await response.json();
-
-    // Filter rooms by capacity
-    const filteredRooms = allRooms.filter(
-      (room) => room.capacity >= totalGuests,
-    );
-
-    displayRooms(filteredRooms);
+    const availableRooms = await response.json();
+    displayRooms(availableRooms);
   } catch (error) {
     console.error("Error searching rooms:", error);
     // Fallback to sample data filtering
@@ -180,6 +201,7 @@ function displayRooms(rooms) {
             <div class="card room-card">
                 <div class="room-image" style="background-image: url('${room.imageUrl || "/image/logo.png"}')">
                     <span class="room-badge">${getRoomDisplayName(room)}</span>
+                    ${getTopRatedBadge(room)}
                 </div>
                 <div class="card-body">
                     <h5 class="card-title">${getRoomDisplayName(room)}</h5>
@@ -310,6 +332,15 @@ function getAvailabilityText(availability) {
   }
 }
 
+// Badge of a top rated room, with its average rating
+function getTopRatedBadge(room) {
+  const topRated = topRatedRooms.get(room.id);
+  if (!topRated) {
+    return "";
+  }
+  return `<span class="top-rated-badge"><i class="fas fa-star"></i> Top rated ${topRated.averageRating.toFixed(1)}</span>`;
+}
+
 // Load and display reviews
 async function loadReviews() {
   showLoading("reviewsContainer");
@@ -330,6 +361,7 @@ async function loadReviews() {
     const reviews = await response.json();
     displayReviews(reviews);
     currentReviews = reviews;
+    reviewsCursor = reviews.length > 0 ? reviews[reviews.length - 1].cursor : null;
   } catch (error) {
     console.error("Error loading reviews:", error);
     document.getElementById("reviewsContainer").innerHTML = `
@@ -346,11 +378,13 @@ async function loadReviews() {
 
 // Load more reviews
 async function loadMoreReviews() {
-  reviewsOffset += reviewsLimit;
-
   try {
+    // Keyset paging: ask for the reviews older than the last one shown
+    const after = reviewsCursor
+      ? `after=${encodeURIComponent(reviewsCursor)}&`
+      : "";
     const response = await fetch(
-      `/api/client/reviews?offset=${reviewsOffset}&limit=${reviewsLimit}`,
+      `/api/client/reviews?${after}limit=${reviewsLimit}`,
       {
         method: "GET",
         headers: {
@@ -367,6 +401,7 @@ async function loadMoreReviews() {
     const moreReviews = await response.json();
     if (moreReviews.length > 0) {
       appendReviews(moreReviews);
+      reviewsCursor = moreReviews[moreReviews.length - 1].cursor;
     } else {
       // Hide the "Load More" button if no more reviews
       const loadMoreBtn = document.querySelector(
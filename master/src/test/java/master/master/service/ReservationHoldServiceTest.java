@@ -0,0 +1,117 @@
+package master.master.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import master.master.domain.RoomStatus;
+import master.master.domain.RoomType;
+import master.master.repository.ReservationRepository;
+import master.master.repository.RoomUnavailabilityRepository;
+import master.master.web.rest.dto.ReservationHoldDto;
+import master.master.web.rest.dto.RoomSummaryDto;
+import org.junit.jupiter.api.Test;
+
+/** Expiry of {@link ReservationHoldService} holds on the timing wheel, under a controlled clock. */
+class ReservationHoldServiceTest {
+
+  private static final Long ROOM_ID = 7L;
+
+  private final TestClock clock = new TestClock(Instant.parse("2030-01-01T10:00:00.500Z"));
+  private final RoomAvailabilityIndex availabilityIndex =
+      new RoomAvailabilityIndex(
+          mock(ReservationRepository.class), mock(RoomUnavailabilityRepository.class));
+  private final ReservationHoldService holds = holdService();
+
+  @Test
+  void holdExpiringMidSecondIsReleasedOnceExpired() {
+    LocalDate checkIn = LocalDate.now(clock).plusDays(3);
+    LocalDate checkOut = checkIn.plusDays(2);
+    holds.expireHolds();
+    ReservationHoldDto hold = holds.hold(ROOM_ID, 1L, checkIn, checkOut, 1).orElseThrow();
+    assertFalse(availabilityIndex.isAvailable(ROOM_ID, checkIn, checkOut));
+
+    // Same second as the expiry, 300 ms before it
+    clock.advance(Duration.ofMillis(60_000 - 300));
+    holds.expireHolds();
+    assertFalse(availabilityIndex.isAvailable(ROOM_ID, checkIn, checkOut), "released too early");
+
+    clock.advance(Duration.ofMillis(300 + 100));
+    holds.expireHolds();
+    clock.advance(Duration.ofSeconds(1));
+    holds.expireHolds();
+    assertTrue(availabilityIndex.isAvailable(ROOM_ID, checkIn, checkOut), "hold leaked");
+    assertFalse(holds.release(hold.getHoldId(), 1L));
+  }
+
+  @Test
+  void holdsExpireWhateverTheTickOffset() {
+    LocalDate checkIn = LocalDate.now(clock).plusDays(3);
+    holds.expireHolds();
+    for (int offset = 0; offset < 1000; offset += 50) {
+      clock.advance(Duration.ofMillis(offset));
+      holds.hold(ROOM_ID, 1L, checkIn.plusDays(offset), checkIn.plusDays(offset + 1), 1);
+    }
+    for (int tick = 0; tick < 70; tick++) {
+      clock.advance(Duration.ofMillis(1000));
+      holds.expireHolds();
+    }
+    assertTrue(availabilityIndex.isAvailable(ROOM_ID, checkIn, checkIn.plusDays(1001)));
+  }
+
+  private ReservationHoldService holdService() {
+    RoomSummaryDto room =
+        RoomSummaryDto.builder()
+            .id(ROOM_ID)
+            .type(RoomType.STANDARD)
+            .status(RoomStatus.AVAILABLE)
+            .build();
+    RoomCatalogService catalog = mock(RoomCatalogService.class);
+    when(catalog.current())
+        .thenReturn(new RoomCatalogService.Snapshot(1, List.of(room), Map.of(), new byte[0], ""));
+    return new ReservationHoldService(
+        catalog,
+        availabilityIndex,
+        mock(ReservationRepository.class),
+        new RoomBookingLocks(),
+        mock(HotelWebsiteService.class),
+        clock);
+  }
+
+  private static final class TestClock extends Clock {
+
+    private Instant now;
+
+    TestClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
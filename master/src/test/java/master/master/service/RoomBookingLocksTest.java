@@ -0,0 +1,208 @@
+package master.master.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import master.master.domain.Client;
+import master.master.domain.Reservation;
+import master.master.domain.RoleCode;
+import master.master.domain.Room;
+import master.master.mapper.ReservationMapperImpl;
+import master.master.repository.ClientRepository;
+import master.master.repository.ReservationRepository;
+import master.master.repository.RoomRepository;
+import master.master.repository.RoomUnavailabilityRepository;
+import master.master.web.rest.dto.ReservationDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Concurrency stress test of the REST booking path: many threads book random stays in a few rooms
+ * through the real {@link BookingPipeline} and {@link ReservationService}. The reservations live in
+ * an in-memory repository whose overlap check and insert are not atomic, so only the room locks
+ * keep two bookings of the same nights apart.
+ */
+class RoomBookingLocksTest {
+
+  private static final int THREADS = 16;
+  private static final int ATTEMPTS_PER_THREAD = 2_000;
+  private static final int ROOMS = 24;
+  private static final int NIGHTS = 3_650;
+  private static final LocalDate FIRST_NIGHT = LocalDate.now().plusDays(1);
+
+  @Test
+  void bookingsOfTheSameRoomNeverOverlap() throws Exception {
+    Map<Long, List<Reservation>> reservationsByRoom = new ConcurrentHashMap<>();
+    BookingPipeline pipeline =
+        pipeline(new RoomBookingLocks(8, Duration.ofSeconds(30)), reservationsByRoom);
+    AtomicInteger booked = new AtomicInteger();
+    AtomicInteger conflicts = new AtomicInteger();
+
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    long started = System.nanoTime();
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      workers.add(
+          pool.submit(
+              () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                  LocalDate checkIn = FIRST_NIGHT.plusDays(random.nextInt(NIGHTS - 7));
+                  ReservationDto.Create dto = new ReservationDto.Create();
+                  dto.setRoomId((long) random.nextInt(ROOMS) + 1);
+                  dto.setReservationDateStart(checkIn);
+                  dto.setReservationDateEnd(checkIn.plusDays(1 + random.nextInt(7)));
+                  try {
+                    pipeline.create(1L, dto);
+                    booked.incrementAndGet();
+                  } catch (ResponseStatusException e) {
+                    assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+                    conflicts.incrementAndGet();
+                  }
+                }
+              }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    pool.shutdown();
+    double seconds = (System.nanoTime() - started) / 1e9;
+
+    int attempts = THREADS * ATTEMPTS_PER_THREAD;
+    System.out.printf(
+        "%d attempts in %.3f s: %.0f bookings/s, %.0f attempts/s, conflict rate %.1f%%%n",
+        attempts,
+        seconds,
+        booked.get() / seconds,
+        attempts / seconds,
+        100.0 * conflicts.get() / attempts);
+
+    assertEquals(attempts, booked.get() + conflicts.get());
+    assertEquals(
+        booked.get(), reservationsByRoom.values().stream().mapToInt(List::size).sum());
+    for (List<Reservation> reservations : reservationsByRoom.values()) {
+      int[] nights = new int[NIGHTS];
+      for (Reservation reservation : reservations) {
+        LocalDate checkIn = reservation.getStartDatetime().toLocalDate();
+        LocalDate checkOut = reservation.getEndDatetime().toLocalDate();
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+          int index = (int) (night.toEpochDay() - FIRST_NIGHT.toEpochDay());
+          assertFalse(++nights[index] > 1, "night " + night + " booked twice");
+        }
+      }
+    }
+  }
+
+  @Test
+  void lockingOverlappingRoomSetsInAnyOrderDoesNotDeadlock() throws Exception {
+    RoomBookingLocks locks = new RoomBookingLocks(8, Duration.ofSeconds(30));
+    AtomicInteger runs = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    List<Future<?>> workers =
+        List.of(
+            pool.submit(() -> lockRepeatedly(locks, List.of(1L, 2L, 3L), runs)),
+            pool.submit(() -> lockRepeatedly(locks, List.of(3L, 2L, 1L), runs)));
+    for (Future<?> worker : workers) {
+      worker.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+    assertEquals(20_000, runs.get());
+  }
+
+  private static void lockRepeatedly(RoomBookingLocks locks, List<Long> rooms, AtomicInteger runs) {
+    for (int i = 0; i < 10_000; i++) {
+      locks.withRoomLocks(rooms, runs::incrementAndGet);
+    }
+  }
+
+  /**
+   * The real booking path over mocked repositories. The overlap check and the insert of the
+   * reservation repository leave a window between them, as a database round trip would.
+   */
+  private static BookingPipeline pipeline(
+      RoomBookingLocks locks, Map<Long, List<Reservation>> reservationsByRoom) {
+    ReservationRepository reservationRepository =
+        mock(ReservationRepository.class, withSettings().stubOnly());
+    AtomicLong ids = new AtomicLong();
+    when(reservationRepository.existsOverlappingReservation(anyLong(), any(), any()))
+        .thenAnswer(
+            invocation -> {
+              LocalDate checkIn = invocation.getArgument(1);
+              LocalDate checkOut = invocation.getArgument(2);
+              return reservationsByRoom
+                  .getOrDefault(invocation.<Long>getArgument(0), List.of())
+                  .stream()
+                  .anyMatch(
+                      reservation ->
+                          reservation.getStartDatetime().toLocalDate().isBefore(checkOut)
+                              && checkIn.isBefore(reservation.getEndDatetime().toLocalDate()));
+            });
+    when(reservationRepository.save(any(Reservation.class)))
+        .thenAnswer(
+            invocation -> {
+              Reservation reservation = invocation.getArgument(0);
+              Thread.yield();
+              reservation.setId(ids.incrementAndGet());
+              reservationsByRoom
+                  .computeIfAbsent(
+                      reservation.getRoom().getId(), room -> new CopyOnWriteArrayList<>())
+                  .add(reservation);
+              return reservation;
+            });
+
+    Client client = new Client();
+    client.setId(1L);
+    ClientRepository clientRepository = mock(ClientRepository.class, withSettings().stubOnly());
+    when(clientRepository.findByUserIdAndUserRoleCode(1L, RoleCode.CLIENT))
+        .thenReturn(Optional.of(client));
+
+    RoomRepository roomRepository = mock(RoomRepository.class, withSettings().stubOnly());
+    when(roomRepository.findById(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              Room room = new Room();
+              room.setId(invocation.getArgument(0));
+              room.setPrice(100.0);
+              return Optional.of(room);
+            });
+
+    RoomPricingService pricingService = mock(RoomPricingService.class, withSettings().stubOnly());
+    when(pricingService.quote(anyLong(), anyDouble(), any(), any())).thenReturn(100.0);
+
+    // Empty, so the repository overlap check is the one the locks must protect
+    RoomAvailabilityIndex availabilityIndex =
+        new RoomAvailabilityIndex(reservationRepository, mock(RoomUnavailabilityRepository.class));
+
+    ReservationService reservationService =
+        new ReservationService(
+            reservationRepository,
+            clientRepository,
+            roomRepository,
+            new ReservationMapperImpl(),
+            pricingService,
+            availabilityIndex);
+    return new BookingPipeline(locks, mock(HotelWebsiteService.class), reservationService);
+  }
+}